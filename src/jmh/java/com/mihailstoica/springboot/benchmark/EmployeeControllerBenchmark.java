@@ -0,0 +1,83 @@
+package com.mihailstoica.springboot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mihailstoica.springboot.controller.EmployeeController;
+import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.service.impl.EmployeeSearchIndex;
+import com.mihailstoica.springboot.service.impl.EmployeeServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Full {@link EmployeeController} handler invocation through a standalone MockMvc: request mapping,
+ * argument resolution, the service on an in-memory repository and JSON message conversion
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class EmployeeControllerBenchmark {
+
+    @Param({"10000"})
+    public int tableSize;
+
+    private MockMvc mockMvc;
+
+    private ObjectMapper objectMapper;
+
+    private final AtomicLong emails = new AtomicLong();
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        EmployeeServiceImpl employeeService = new EmployeeServiceImpl(InMemoryEmployeeRepository.create(tableSize),
+                null, event -> { });
+        EmployeeSearchIndex employeeSearchIndex = new EmployeeSearchIndex(employeeService);
+        InMemoryEmployeeRepository.employees(tableSize).forEach(employeeSearchIndex::put);
+        //no change stream, its endpoint is not benchmarked
+        mockMvc = MockMvcBuilders.standaloneSetup(new EmployeeController(employeeService, employeeSearchIndex,
+                        null, objectMapper))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
+                .build();
+    }
+
+    @Benchmark
+    public MvcResult getEmployeeById() throws Exception {
+
+        return mockMvc.perform(get("/api/employees/{id}", ThreadLocalRandom.current().nextLong(1, tableSize + 1)))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getEmployeePage() throws Exception {
+
+        return mockMvc.perform(get("/api/employees").param("limit", "20")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult createEmployee() throws Exception {
+
+        Employee employee = Employee.builder()
+                .firstName("Jane")
+                .lastName("Doe")
+                .email("jane.doe" + emails.incrementAndGet() + "@xyz,xyz")
+                .build();
+        return mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(employee)))
+                .andReturn();
+    }
+}
@@ -0,0 +1,94 @@
+package com.mihailstoica.springboot.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mihailstoica.springboot.model.Employee;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The list response of {@code GET /api/employees} in each format the API negotiates: serialization and
+ * deserialization throughput, and the payload size, plain and gzipped, logged once per trial. Compare with
+ * {@code mvn -Pjmh verify -Djmh.includes=EmployeeFormatBenchmark}
+ */
+@Slf4j
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class EmployeeFormatBenchmark {
+
+    private static final TypeReference<List<Employee>> EMPLOYEE_LIST = new TypeReference<>() {
+    };
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"100", "10000"})
+    public int listSize;
+
+    private ObjectMapper objectMapper;
+
+    private List<Employee> employees;
+
+    private byte[] payload;
+
+    @Setup
+    public void setup() throws Exception {
+        switch (format) {
+            case "json":
+                objectMapper = Jackson2ObjectMapperBuilder.json().build();
+                break;
+            case "smile":
+                objectMapper = Jackson2ObjectMapperBuilder.smile().build();
+                break;
+            case "cbor":
+                objectMapper = Jackson2ObjectMapperBuilder.cbor().build();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+        employees = InMemoryEmployeeRepository.employees(listSize);
+        payload = objectMapper.writeValueAsBytes(employees);
+        log.info("{}, {} employees: {} bytes, {} bytes gzipped", format, listSize, payload.length,
+                gzip(payload).length);
+    }
+
+    @Benchmark
+    public byte[] serializeEmployeeList() throws Exception {
+
+        return objectMapper.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public List<Employee> deserializeEmployeeList() throws Exception {
+
+        return objectMapper.readValue(payload, EMPLOYEE_LIST);
+    }
+
+    /**
+     * What the client receives with server.compression, at the JDK's default level like Tomcat
+     */
+    @Benchmark
+    public byte[] serializeEmployeeListGzipped() throws Exception {
+
+        return gzip(objectMapper.writeValueAsBytes(employees));
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+}
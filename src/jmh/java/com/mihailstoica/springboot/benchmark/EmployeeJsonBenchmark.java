@@ -0,0 +1,77 @@
+package com.mihailstoica.springboot.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.model.EmployeeJacksonModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON (de)serialization of {@link Employee} and lists of employees with an ObjectMapper
+ * configured like Spring Boot's, reflective or with the hand-written {@link EmployeeJacksonModule}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class EmployeeJsonBenchmark {
+
+    private static final TypeReference<List<Employee>> EMPLOYEE_LIST = new TypeReference<>() {
+    };
+
+    @Param({"1", "100", "1000"})
+    public int listSize;
+
+    @Param({"reflective", "module"})
+    public String mapper;
+
+    private ObjectMapper objectMapper;
+
+    private Employee employee;
+
+    private List<Employee> employees;
+
+    private byte[] employeeJson;
+
+    private byte[] employeesJson;
+
+    @Setup
+    public void setup() throws Exception {
+        objectMapper = "module".equals(mapper)
+                ? Jackson2ObjectMapperBuilder.json().modulesToInstall(new EmployeeJacksonModule()).build()
+                : Jackson2ObjectMapperBuilder.json().build();
+        employees = InMemoryEmployeeRepository.employees(listSize);
+        employee = employees.get(0);
+        employeeJson = objectMapper.writeValueAsBytes(employee);
+        employeesJson = objectMapper.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public byte[] serializeEmployee() throws Exception {
+
+        return objectMapper.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public Employee deserializeEmployee() throws Exception {
+
+        return objectMapper.readValue(employeeJson, Employee.class);
+    }
+
+    @Benchmark
+    public byte[] serializeEmployeeList() throws Exception {
+
+        return objectMapper.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public List<Employee> deserializeEmployeeList() throws Exception {
+
+        return objectMapper.readValue(employeesJson, EMPLOYEE_LIST);
+    }
+}
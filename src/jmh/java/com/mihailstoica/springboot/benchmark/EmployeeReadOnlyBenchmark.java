@@ -0,0 +1,109 @@
+package com.mihailstoica.springboot.benchmark;
+
+import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.repository.EmployeeRepository;
+import com.mihailstoica.springboot.repository.EmployeeRepositoryCustomImpl;
+import com.mihailstoica.springboot.service.EmployeeService;
+import com.mihailstoica.springboot.service.impl.EmployeeServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * List request of {@link EmployeeServiceImpl#getAllEmployees()} against Hibernate on an in-memory H2 database:
+ * the read-only service transaction (read-only session, FlushMode.MANUAL, read-only connection) versus the same
+ * query in a read-write transaction, which keeps a loaded-state snapshot per entity and dirty-checks them at commit.
+ * Compare allocation with the GC profiler:
+ * {@code mvn -Pjmh verify -Djmh.includes=EmployeeReadOnlyBenchmark -Djmh.args="-f 1 -prof gc"}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class EmployeeReadOnlyBenchmark {
+
+    @Param({"100", "1000"})
+    public int tableSize;
+
+    private SingleConnectionDataSource dataSource;
+
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+
+    private EmployeeRepository employeeRepository;
+
+    private EmployeeService employeeService;
+
+    private TransactionTemplate readWriteTransaction;
+
+    @Setup
+    public void setup() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:readonly;MODE=MySQL;DATABASE_TO_LOWER=TRUE", "sa",
+                "", true);
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPackagesToScan(Employee.class.getPackageName());
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.dialect", "org.hibernate.dialect.H2Dialect",
+                "hibernate.hbm2ddl.auto", "create-drop"));
+        entityManagerFactoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = entityManagerFactoryBean.getObject();
+
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        employeeRepository = new JpaRepositoryFactory(entityManager).getRepository(EmployeeRepository.class,
+                RepositoryFragments.just(new EmployeeRepositoryCustomImpl()));
+
+        //the same transactional proxy Spring puts around the service bean
+        ProxyFactory proxyFactory = new ProxyFactory(new EmployeeServiceImpl(employeeRepository, entityManager,
+                event -> { }));
+        proxyFactory.addAdvice(new TransactionInterceptor(transactionManager,
+                new AnnotationTransactionAttributeSource()));
+        employeeService = (EmployeeService) proxyFactory.getProxy();
+
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readWriteTransaction.executeWithoutResult(status -> {
+            for (int i = 0; i < tableSize; i++) {
+                employeeRepository.save(Employee.builder()
+                        .firstName("John" + i)
+                        .lastName("Doe")
+                        .email("john.doe" + i + "@xyz,xyz")
+                        .build());
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManagerFactoryBean.destroy();
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public List<Employee> getAllEmployeesReadOnly() {
+
+        return employeeService.getAllEmployees();
+    }
+
+    @Benchmark
+    public List<Employee> getAllEmployeesReadWrite() {
+
+        return readWriteTransaction.execute(status -> employeeRepository.findAll());
+    }
+}
@@ -0,0 +1,65 @@
+package com.mihailstoica.springboot.benchmark;
+
+import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.model.EmployeeSearchResult;
+import com.mihailstoica.springboot.service.impl.EmployeeSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Type-ahead lookups on {@link EmployeeSearchIndex}: a two-letter prefix, a selective infix and a query
+ * with no match, over generated names with a realistic spread
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class EmployeeSearchBenchmark {
+
+    private static final String[] FIRST_NAMES = {"John", "Jane", "Maria", "Mihail", "Anders", "Fatima", "Wei",
+            "Olga", "Pedro", "Aisha", "Lucas", "Emma", "Noah", "Sofia", "Ivan", "Chen", "Amir", "Lena", "Tomas",
+            "Yuki"};
+
+    @Param({"100000", "1000000"})
+    public int tableSize;
+
+    @Param({"ma", "derso", "qzx"})
+    public String query;
+
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @Setup
+    public void setup() {
+        employeeSearchIndex = new EmployeeSearchIndex(null);
+        Random random = new Random(42);
+        for (int i = 1; i <= tableSize; i++) {
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = lastName(random);
+            employeeSearchIndex.put(Employee.builder()
+                    .id(i)
+                    .firstName(firstName)
+                    .lastName(lastName)
+                    .email(firstName.toLowerCase() + "." + lastName.toLowerCase() + i + "@xyz.xyz")
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public EmployeeSearchResult search() {
+
+        return employeeSearchIndex.search(query, 0, 20);
+    }
+
+    private static String lastName(Random random) {
+
+        char[] lastName = new char[5 + random.nextInt(5)];
+        for (int i = 0; i < lastName.length; i++) {
+            lastName[i] = (char) ('a' + random.nextInt(26));
+        }
+        lastName[0] = Character.toUpperCase(lastName[0]);
+        return new String(lastName);
+    }
+}
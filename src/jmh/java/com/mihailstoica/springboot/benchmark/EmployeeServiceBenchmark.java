@@ -0,0 +1,56 @@
+package com.mihailstoica.springboot.benchmark;
+
+import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.model.EmployeePage;
+import com.mihailstoica.springboot.service.impl.EmployeeServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link EmployeeServiceImpl} on top of an in-memory repository stand-in
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class EmployeeServiceBenchmark {
+
+    @Param({"10000"})
+    public int tableSize;
+
+    private EmployeeServiceImpl employeeService;
+
+    private final AtomicLong emails = new AtomicLong();
+
+    @Setup
+    public void setup() {
+        employeeService = new EmployeeServiceImpl(InMemoryEmployeeRepository.create(tableSize), null, event -> { });
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeById() {
+
+        return employeeService.getEmployeeById(ThreadLocalRandom.current().nextLong(1, tableSize + 1));
+    }
+
+    @Benchmark
+    public EmployeePage getEmployeePage() {
+
+        return employeeService.getEmployeePage(ThreadLocalRandom.current().nextLong(tableSize), 20);
+    }
+
+    @Benchmark
+    public Employee saveEmployee() {
+
+        return employeeService.saveEmployee(Employee.builder()
+                .firstName("Jane")
+                .lastName("Doe")
+                .email("jane.doe" + emails.incrementAndGet() + "@xyz,xyz")
+                .build());
+    }
+}
@@ -0,0 +1,163 @@
+package com.mihailstoica.springboot.benchmark;
+
+import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.model.EmployeePatch;
+import com.mihailstoica.springboot.repository.EmployeeRepository;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Map-backed stand-in for {@link EmployeeRepository} so service and controller benchmarks measure
+ * application code rather than the database. Only the methods the service calls are implemented.
+ */
+final class InMemoryEmployeeRepository implements InvocationHandler {
+
+    private final ConcurrentNavigableMap<Long, Employee> employees = new ConcurrentSkipListMap<>();
+
+    private final Map<String, Long> idsByEmail = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicLong revision = new AtomicLong();
+
+    private InMemoryEmployeeRepository() {
+    }
+
+    static EmployeeRepository create(int size) {
+
+        InMemoryEmployeeRepository handler = new InMemoryEmployeeRepository();
+        for (int i = 0; i < size; i++) {
+            handler.save(Employee.builder()
+                    .firstName("John" + i)
+                    .lastName("Doe")
+                    .email("john.doe" + i + "@xyz,xyz")
+                    .build());
+        }
+        return (EmployeeRepository) Proxy.newProxyInstance(EmployeeRepository.class.getClassLoader(),
+                new Class<?>[]{EmployeeRepository.class}, handler);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+
+        switch (method.getName()) {
+            case "save":
+            case "saveAndFlush":
+                return save((Employee) args[0]);
+            case "findById":
+                return Optional.ofNullable(employees.get((Long) args[0])).map(Employee::toBuilder)
+                        .map(Employee.EmployeeBuilder::build);
+            case "findVersionById":
+                return Optional.ofNullable(employees.get((Long) args[0])).map(Employee::getVersion);
+            case "findEmployeesRevision":
+                return revision.get();
+            case "incrementEmployeesRevision":
+                revision.incrementAndGet();
+                return 1;
+            case "insertChanges":
+                return ((List<?>) args[0]).size();
+            case "existsById":
+                return employees.containsKey((Long) args[0]);
+            case "findAll":
+                return new ArrayList<>(employees.values());
+            case "findByEmail":
+                return Optional.ofNullable(idsByEmail.get((String) args[0])).map(employees::get);
+            case "findByIdGreaterThanOrderByIdAsc":
+                return employees.tailMap((Long) args[0], false).values().stream()
+                        .limit(((Pageable) args[1]).getPageSize())
+                        .collect(Collectors.toList());
+            case "patch":
+                return patch((Long) args[0], (Long) args[1], (EmployeePatch) args[2]);
+            case "deleteEmployeeById":
+                return delete((Long) args[0]);
+            case "deleteEmployeeByIdAndVersion":
+                return delete((Long) args[0], (Long) args[1]);
+            case "flush":
+                return null;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return InMemoryEmployeeRepository.class.getSimpleName();
+            default:
+                throw new UnsupportedOperationException(method.toString());
+        }
+    }
+
+    private Employee save(Employee employee) {
+
+        if (employee.getId() == 0L) {
+            if (idsByEmail.putIfAbsent(employee.getEmail(), -1L) != null) {
+                throw new IllegalStateException("Duplicate email: " + employee.getEmail());
+            }
+            employee.setId(sequence.incrementAndGet());
+            idsByEmail.put(employee.getEmail(), employee.getId());
+        } else {
+            employee.setVersion(employee.getVersion() + 1);
+        }
+        employees.put(employee.getId(), employee.toBuilder().build());
+        return employee;
+    }
+
+    private int patch(long id, long version, EmployeePatch patch) {
+
+        Employee employee = employees.get(id);
+        if (employee == null || employee.getVersion() != version) {
+            return 0;
+        }
+        Employee patchedEmployee = employee.toBuilder()
+                .firstName(patch.getFirstName() != null ? patch.getFirstName() : employee.getFirstName())
+                .lastName(patch.getLastName() != null ? patch.getLastName() : employee.getLastName())
+                .email(patch.getEmail() != null ? patch.getEmail() : employee.getEmail())
+                .version(version + 1)
+                .build();
+        return employees.replace(id, employee, patchedEmployee) ? 1 : 0;
+    }
+
+    private int delete(long id) {
+
+        Employee employee = employees.remove(id);
+        if (employee == null) {
+            return 0;
+        }
+        idsByEmail.remove(employee.getEmail());
+        return 1;
+    }
+
+    private int delete(long id, long version) {
+
+        Employee employee = employees.get(id);
+        if (employee == null || employee.getVersion() != version || !employees.remove(id, employee)) {
+            return 0;
+        }
+        idsByEmail.remove(employee.getEmail());
+        return 1;
+    }
+
+    static List<Employee> employees(int size) {
+
+        List<Employee> employees = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            employees.add(Employee.builder()
+                    .id(i + 1)
+                    .firstName("John" + i)
+                    .lastName("Doe")
+                    .email("john.doe" + i + "@xyz,xyz")
+                    .build());
+        }
+        return employees;
+    }
+}
@@ -2,12 +2,22 @@ package com.mihailstoica.springboot;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class SpringBootTestingApplication {
 
+    /**
+     * Startup steps kept for the actuator startup endpoint, enough for the whole context
+     */
+    private static final int STARTUP_STEPS_CAPACITY = 10_000;
+
     public static void main(String[] args) {
-        SpringApplication.run(SpringBootTestingApplication.class, args);
+        SpringApplication application = new SpringApplication(SpringBootTestingApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY));
+        application.run(args);
     }
 
 }
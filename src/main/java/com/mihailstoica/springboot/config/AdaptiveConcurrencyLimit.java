@@ -0,0 +1,93 @@
+package com.mihailstoica.springboot.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limit adjusted by additive increase, multiplicative decrease (AIMD): a request that finds the
+ * database overloaded multiplies the limit by the backoff ratio, one that does not raises it by {@code 1/limit}, so
+ * by one per limit's worth of requests, as long as the limit is actually used. Like TCP congestion control the limit
+ * is lowered once per congestion episode: only a request admitted after the last decrease can lower it again, the
+ * ones already running when it was lowered saw the same overload. Lock-free, the limit is kept as the bits of a
+ * double.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    private final AtomicLong limitBits;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Requests admitted so far, numbering the tickets
+     */
+    private final AtomicLong admitted = new AtomicLong();
+
+    /**
+     * First ticket allowed to lower the limit, those of the requests in flight at the last decrease are below it
+     */
+    private final AtomicLong nextDecreaseTicket = new AtomicLong();
+
+    public AdaptiveConcurrencyLimit(AdmissionControlProperties.Limit properties) {
+
+        if (properties.getMinLimit() < 1 || properties.getMaxLimit() < properties.getMinLimit()) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min-limit <= max-limit");
+        }
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.backoffRatio = properties.getBackoffRatio();
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(
+                Math.max(minLimit, Math.min(maxLimit, properties.getInitialLimit()))));
+    }
+
+    /**
+     * @return the ticket of the request if it may run, to be passed to {@link #release(long, boolean)}, or -1
+     */
+    public long tryAcquire() {
+
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return admitted.getAndIncrement();
+            }
+        }
+    }
+
+    /**
+     * @param ticket     returned by {@link #tryAcquire()} when the request was admitted
+     * @param overloaded whether the request found the database overloaded
+     */
+    public void release(long ticket, boolean overloaded) {
+
+        int current = inFlight.getAndDecrement();
+        if (overloaded) {
+            long boundary = nextDecreaseTicket.get();
+            if (ticket >= boundary && nextDecreaseTicket.compareAndSet(boundary, admitted.get())) {
+                limitBits.getAndUpdate(bits -> Double.doubleToLongBits(
+                        Math.max(minLimit, Double.longBitsToDouble(bits) * backoffRatio)));
+            }
+        } else {
+            limitBits.getAndUpdate(bits -> {
+                double limit = Double.longBitsToDouble(bits);
+                //an idle limit says nothing about the capacity, it is not raised
+                return current * 2 < limit ? bits : Double.doubleToLongBits(Math.min(maxLimit, limit + 1 / limit));
+            });
+        }
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
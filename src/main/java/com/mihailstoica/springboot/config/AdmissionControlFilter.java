@@ -0,0 +1,139 @@
+package com.mihailstoica.springboot.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.security.Principal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejects requests up front rather than letting them queue on the connection pool until they time out: a client
+ * over its {@link ClientRateLimiter rate} gets 429, a request over the {@link AdaptiveConcurrencyLimit concurrency
+ * limit} gets 503, both with {@code Retry-After}. Reads and writes have separate limits, each lowered when a
+ * request waited too long for a connection or its statements ran too slowly, as measured by
+ * {@link SqlStatementStatistics}, and raised again while they do not.
+ * <p>
+ * Must run inside {@link SqlStatementFilter}. Only the request thread is limited, the body of an asynchronous
+ * response is streamed after its slot has been released.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final AdmissionControlProperties properties;
+
+    private final ClientRateLimiter rateLimiter;
+
+    private final AdaptiveConcurrencyLimit readLimit;
+
+    private final AdaptiveConcurrencyLimit writeLimit;
+
+    private final Counter rateRejections;
+
+    private final Counter readRejections;
+
+    private final Counter writeRejections;
+
+    public AdmissionControlFilter(AdmissionControlProperties properties, MeterRegistry meterRegistry) {
+
+        this.properties = properties;
+        this.rateLimiter = new ClientRateLimiter(properties.getRate(), properties.getBurst(),
+                properties.getClientIdleTimeout(), properties.getMaxClients());
+        this.readLimit = new AdaptiveConcurrencyLimit(properties.getRead());
+        this.writeLimit = new AdaptiveConcurrencyLimit(properties.getWrite());
+
+        this.rateRejections = rejections(meterRegistry, "rate", "all");
+        this.readRejections = rejections(meterRegistry, "concurrency", "read");
+        this.writeRejections = rejections(meterRegistry, "concurrency", "write");
+        limitGauges(meterRegistry, "read", readLimit);
+        limitGauges(meterRegistry, "write", writeLimit);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        long waitNanos = rateLimiter.tryAcquire(client(request));
+        if (waitNanos > 0) {
+            rateRejections.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, waitNanos);
+            return;
+        }
+
+        boolean write = ReadYourWritesFilter.isWrite(request.getMethod());
+        AdaptiveConcurrencyLimit limit = write ? writeLimit : readLimit;
+        long ticket = limit.tryAcquire();
+        if (ticket < 0) {
+            (write ? writeRejections : readRejections).increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, properties.getRetryAfter().toNanos());
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limit.release(ticket, isOverloaded(SqlStatementStatistics.current()));
+        }
+    }
+
+    /**
+     * The authenticated user, or the remote address without one. Never a request header, a client could send a new
+     * value with every request and get a full burst each time. Behind a reverse proxy set
+     * {@code server.forward-headers-strategy=native}: Tomcat then takes the address from {@code X-Forwarded-For}
+     * only for requests coming from one of {@code server.tomcat.remoteip.internal-proxies}.
+     */
+    static String client(HttpServletRequest request) {
+
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? "user:" + principal.getName() : request.getRemoteAddr();
+    }
+
+    private boolean isOverloaded(SqlStatementStatistics statistics) {
+
+        if (statistics == null) {
+            return false;
+        }
+        if (statistics.getConnectionWaitNanos() > properties.getMaxConnectionWait().toNanos()) {
+            return true;
+        }
+        return statistics.getStatements() > 0 && statistics.getTimeNanos() / statistics.getStatements()
+                > properties.getMaxStatementTime().toNanos();
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterNanos) {
+
+        response.setStatus(status.value());
+        //whole seconds, rounded up so a client retrying on time is admitted
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+                Long.toString(Math.max(1, (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1)
+                        / TimeUnit.SECONDS.toNanos(1))));
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason, String type) {
+
+        return Counter.builder("http.server.requests.rejected")
+                .description("Requests refused by admission control")
+                .tag("reason", reason)
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private static void limitGauges(MeterRegistry meterRegistry, String type, AdaptiveConcurrencyLimit limit) {
+
+        Gauge.builder("http.server.requests.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Adaptive concurrency limit of admission control")
+                .tag("type", type)
+                .register(meterRegistry);
+        Gauge.builder("http.server.requests.concurrency.in.flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Requests admitted and still running")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,82 @@
+package com.mihailstoica.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Load shedding in front of the employee API, see {@link AdmissionControlFilter}
+ */
+@Data
+@ConfigurationProperties(prefix = "app.admission")
+public class AdmissionControlProperties {
+
+    private boolean enabled;
+
+    /**
+     * Sustained requests per second of one client, the authenticated user or else the remote address
+     */
+    private double rate = 100;
+
+    /**
+     * Requests a client may send at once on top of the rate, e.g. after being idle
+     */
+    private int burst = 200;
+
+    /**
+     * How long an idle client's rate state is kept
+     */
+    private Duration clientIdleTimeout = Duration.ofMinutes(1);
+
+    /**
+     * Clients whose rate state is kept at most, so a flood of addresses cannot grow the heap without bound
+     */
+    private long maxClients = 100_000;
+
+    /**
+     * Connection pool wait of a request above which the database is considered overloaded
+     */
+    private Duration maxConnectionWait = Duration.ofMillis(20);
+
+    /**
+     * Average SQL statement time of a request above which the database is considered overloaded
+     */
+    private Duration maxStatementTime = Duration.ofMillis(100);
+
+    /**
+     * Sent as {@code Retry-After} with 503 when a concurrency limit is reached
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    private Limit read = new Limit(20, 4, 200);
+
+    private Limit write = new Limit(10, 2, 50);
+
+    /**
+     * Adaptive concurrency limit, kept in line with the connection pool size
+     */
+    @Data
+    public static class Limit {
+
+        private int initialLimit;
+
+        private int minLimit;
+
+        private int maxLimit;
+
+        /**
+         * Factor the limit is multiplied by when requests find the database overloaded, once per congestion episode
+         */
+        private double backoffRatio = 0.9;
+
+        public Limit() {
+        }
+
+        public Limit(int initialLimit, int minLimit, int maxLimit) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.mihailstoica.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * The {@code GET /api/employees/changes} event stream and the employee_changes outbox feeding it, see
+ * {@code EmployeeChangeStream}
+ */
+@Data
+@ConfigurationProperties(prefix = "app.change-stream")
+public class ChangeStreamProperties {
+
+    /**
+     * How often the outbox is polled for changes after the position of the subscribers, one query for all
+     * subscribers that are caught up
+     */
+    private Duration pollInterval = Duration.ofMillis(250);
+
+    /**
+     * Changes per event, and per query
+     */
+    private int batchSize = 500;
+
+    /**
+     * How long changes after a gap in the outbox ids are held back, waiting for the transaction that allocated the
+     * missing ids to commit; it has to outlast the commit of a write, a rolled back write delays the stream by it
+     */
+    private Duration gapTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Idle time after which a comment is sent, keeping proxies from closing the stream and detecting gone clients
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    /**
+     * How long a stream stays open, clients reconnect with {@code Last-Event-ID} afterwards
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+
+    /**
+     * How long changes are kept in the outbox, a client resuming from an older position is sent a reset event
+     */
+    private Duration retention = Duration.ofDays(7);
+
+    /**
+     * How often changes past the retention are deleted, zero disables the cleanup
+     */
+    private Duration purgeInterval = Duration.ofHours(1);
+}
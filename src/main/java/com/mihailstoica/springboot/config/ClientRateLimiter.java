@@ -0,0 +1,66 @@
+package com.mihailstoica.springboot.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per client in the form of the generic cell rate algorithm: a client's whole state is the theoretical
+ * arrival time of its next request, advanced by one emission interval per admitted request with a compare-and-set,
+ * so admitting a request takes no lock. A request is refused when it arrives more than the burst tolerance ahead of
+ * that time.
+ */
+public class ClientRateLimiter {
+
+    private final long emissionIntervalNanos;
+
+    private final long burstToleranceNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final Cache<String, AtomicLong> arrivalTimes;
+
+    /**
+     * @param maxClients clients whose state is kept, beyond that the least recently seen start over with a full burst
+     */
+    public ClientRateLimiter(double rate, int burst, Duration idleTimeout, long maxClients) {
+        this(rate, burst, idleTimeout, maxClients, System::nanoTime);
+    }
+
+    ClientRateLimiter(double rate, int burst, Duration idleTimeout, long maxClients, LongSupplier nanoClock) {
+
+        if (rate <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.emissionIntervalNanos = (long) (1_000_000_000L / rate);
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+        this.nanoClock = nanoClock;
+        this.arrivalTimes = Caffeine.newBuilder()
+                .expireAfterAccess(idleTimeout)
+                .maximumSize(maxClients)
+                .build();
+    }
+
+    /**
+     * @return 0 if the request is admitted, otherwise how long the client has to wait, in nanoseconds
+     */
+    public long tryAcquire(String client) {
+
+        AtomicLong arrivalTime = arrivalTimes.get(client, key -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = arrivalTime.get();
+            long next = Math.max(current, now) + emissionIntervalNanos;
+            long ahead = next - now - burstToleranceNanos;
+            if (ahead > 0) {
+                return ahead;
+            }
+            if (arrivalTime.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.mihailstoica.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Sizing of the in-process cache in front of {@code EmployeeService.getEmployeeById}
+ */
+@Data
+@ConfigurationProperties(prefix = "app.employee-cache")
+public class EmployeeCacheProperties {
+
+    private long maximumSize = 10_000;
+
+    private Duration timeToLive = Duration.ofMinutes(10);
+
+    /**
+     * Ids that were not found kept at most
+     */
+    private long negativeMaximumSize = 10_000;
+
+    /**
+     * How long an id that was not found keeps being answered from the cache
+     */
+    private Duration negativeTimeToLive = Duration.ofSeconds(5);
+
+    /**
+     * How long a lookup waits for a concurrent lookup of the same id before loading the employee itself
+     */
+    private Duration coalescingTimeout = Duration.ofSeconds(2);
+}
@@ -0,0 +1,53 @@
+package com.mihailstoica.springboot.config;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocation;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Adds the calling endpoint, e.g. {@code GET /api/employees/{id}}, to the {@code spring.data.repository.invocations}
+ * timers so repository time can be sliced the same way as {@code http.server.requests}.
+ * Invocations outside a request (startup, background work) are tagged {@code none}.
+ */
+@Component
+public class EndpointRepositoryTagsProvider extends DefaultRepositoryTagsProvider {
+
+    static final String ENDPOINT_TAG = "endpoint";
+
+    static final String NO_ENDPOINT = "none";
+
+    @Override
+    public Iterable<Tag> repositoryTags(RepositoryMethodInvocation invocation) {
+
+        return Tags.of(super.repositoryTags(invocation)).and(ENDPOINT_TAG, currentEndpoint());
+    }
+
+    static String currentEndpoint() {
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return NO_ENDPOINT;
+        }
+        return endpoint(((ServletRequestAttributes) attributes).getRequest());
+    }
+
+    /**
+     * The request method and the handler pattern it was mapped to, or {@code none} if it was not mapped
+     */
+    static String endpoint(HttpServletRequest request) {
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return NO_ENDPOINT;
+        }
+        return request.getMethod() + " " + pattern;
+    }
+}
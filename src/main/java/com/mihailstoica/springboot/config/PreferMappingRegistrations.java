@@ -0,0 +1,33 @@
+package com.mihailstoica.springboot.config;
+
+import com.mihailstoica.springboot.controller.PreferMapping;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.condition.RequestCondition;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+
+/**
+ * Turns {@link PreferMapping} into a mapping condition. A method carrying it wins over an otherwise identical mapping
+ * without it, so the synchronous handler still takes every request not asking for the preference.
+ */
+@Component
+@Profile("!reactive")
+public class PreferMappingRegistrations implements WebMvcRegistrations {
+
+    @Override
+    public RequestMappingHandlerMapping getRequestMappingHandlerMapping() {
+
+        return new RequestMappingHandlerMapping() {
+            @Override
+            protected RequestCondition<?> getCustomMethodCondition(Method method) {
+
+                PreferMapping mapping = AnnotatedElementUtils.findMergedAnnotation(method, PreferMapping.class);
+                return mapping != null ? new PreferRequestCondition(mapping.value()) : null;
+            }
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package com.mihailstoica.springboot.config;
+
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.mvc.condition.AbstractRequestCondition;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.Set;
+
+/**
+ * Matches requests whose {@code Prefer} headers (RFC 7240) list a preference, see
+ * {@link com.mihailstoica.springboot.controller.PreferMapping}
+ */
+class PreferRequestCondition extends AbstractRequestCondition<PreferRequestCondition> {
+
+    static final String PREFER_HEADER = "Prefer";
+
+    private final String preference;
+
+    PreferRequestCondition(String preference) {
+        this.preference = preference;
+    }
+
+    @Override
+    protected Collection<?> getContent() {
+        return Set.of(preference);
+    }
+
+    @Override
+    protected String getToStringInfix() {
+        return " && ";
+    }
+
+    /**
+     * The method-level condition is the only one there is
+     */
+    @Override
+    public PreferRequestCondition combine(PreferRequestCondition other) {
+        return other;
+    }
+
+    @Override
+    public PreferRequestCondition getMatchingCondition(HttpServletRequest request) {
+
+        if (CorsUtils.isPreFlightRequest(request)) {
+            return this;
+        }
+        Enumeration<String> headers = request.getHeaders(PREFER_HEADER);
+        while (headers.hasMoreElements()) {
+            if (lists(headers.nextElement(), preference)) {
+                return this;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Both conditions name one preference, neither is more specific
+     */
+    @Override
+    public int compareTo(PreferRequestCondition other, HttpServletRequest request) {
+        return 0;
+    }
+
+    /**
+     * @return true if the comma-separated header lists the preference, whatever its value and parameters
+     */
+    static boolean lists(String header, String preference) {
+
+        for (String token : header.split(",")) {
+            int end = token.length();
+            for (int i = 0; i < token.length(); i++) {
+                if (token.charAt(i) == '=' || token.charAt(i) == ';') {
+                    end = i;
+                    break;
+                }
+            }
+            if (token.substring(0, end).trim().equalsIgnoreCase(preference)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,198 @@
+package com.mihailstoica.springboot.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections of read-only transactions to the healthy replicas, round robin, and everything else to the
+ * primary. The read-only flag is only known once the transaction has started, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} that fetches the connection on the
+ * first statement.
+ * <p>
+ * Replicas are probed every health check interval. A replica that fails the probe or a connection attempt is
+ * skipped, and the connection comes from the primary, until a later probe succeeds.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private static final int HEALTH_CHECK_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+
+    private final Map<String, DataSource> replicas;
+
+    private final Duration healthCheckInterval;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private volatile List<String> healthyReplicas;
+
+    private ScheduledExecutorService healthChecker;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    Duration healthCheckInterval) {
+        this.primary = primary;
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.healthCheckInterval = healthCheckInterval;
+        this.healthyReplicas = List.copyOf(replicas.keySet());
+
+        Map<Object, Object> targetDataSources = new HashMap<>(replicas);
+        targetDataSources.put(PRIMARY, primary);
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * Keeps the current thread on the primary, e.g. for a client that has just written
+     */
+    public static void setPrimaryOnly(boolean primaryOnly) {
+
+        if (primaryOnly) {
+            PRIMARY_ONLY.set(Boolean.TRUE);
+        } else {
+            PRIMARY_ONLY.remove();
+        }
+    }
+
+    /**
+     * Runs the action with the current thread kept on the primary, then restores the previous setting
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+
+        Boolean primaryOnly = PRIMARY_ONLY.get();
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (primaryOnly == null) {
+                PRIMARY_ONLY.remove();
+            }
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+
+        super.afterPropertiesSet();
+        if (!replicas.isEmpty() && !healthCheckInterval.isZero()) {
+            healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-health-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            healthChecker.scheduleWithFixedDelay(this::checkReplicas, healthCheckInterval.toMillis(),
+                    healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+
+        List<String> candidates = healthyReplicas;
+        if (candidates.isEmpty() || PRIMARY_ONLY.get() != null
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        return candidates.get(Math.floorMod(nextReplica.getAndIncrement(), candidates.size()));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+
+        Object key = determineCurrentLookupKey();
+        if (PRIMARY.equals(key)) {
+            return primary.getConnection();
+        }
+        try {
+            return replicas.get(key).getConnection();
+        } catch (SQLException e) {
+            markDown((String) key, e);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+
+        Object key = determineCurrentLookupKey();
+        if (PRIMARY.equals(key)) {
+            return primary.getConnection(username, password);
+        }
+        try {
+            return replicas.get(key).getConnection(username, password);
+        } catch (SQLException e) {
+            markDown((String) key, e);
+            return primary.getConnection(username, password);
+        }
+    }
+
+    /**
+     * Probes every replica and keeps the ones answering in rotation
+     */
+    public void checkReplicas() {
+
+        List<String> healthy = new ArrayList<>(replicas.size());
+        replicas.forEach((name, replica) -> {
+            try (Connection connection = replica.getConnection()) {
+                if (connection.isValid(HEALTH_CHECK_TIMEOUT_SECONDS)) {
+                    healthy.add(name);
+                }
+            } catch (SQLException | RuntimeException e) {
+                log.debug("Replica {} failed its health check", name, e);
+            }
+        });
+        if (!healthy.equals(healthyReplicas)) {
+            log.info("Healthy replicas changed from {} to {}", healthyReplicas, healthy);
+        }
+        healthyReplicas = List.copyOf(healthy);
+    }
+
+    public List<String> getHealthyReplicas() {
+        return healthyReplicas;
+    }
+
+    private synchronized void markDown(String name, SQLException e) {
+
+        if (healthyReplicas.contains(name)) {
+            log.warn("Replica {} is unavailable, reading from the primary until it recovers", name, e);
+            List<String> healthy = new ArrayList<>(healthyReplicas);
+            healthy.remove(name);
+            healthyReplicas = List.copyOf(healthy);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        //the primary is a bean of its own, closed by the context
+        for (DataSource dataSource : replicas.values()) {
+            if (dataSource instanceof AutoCloseable) {
+                ((AutoCloseable) dataSource).close();
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.mihailstoica.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas next to the primary in {@code spring.datasource}, see {@link ReplicaRoutingConfig}
+ */
+@Data
+@ConfigurationProperties(prefix = "app.datasource")
+public class ReplicaRoutingProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * How often every replica is probed, a replica failing the probe or a connection attempt gets no reads
+     * until a later probe succeeds
+     */
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    /**
+     * How long reads of a client stay on the primary after it wrote, so it reads its own writes despite
+     * replication lag; zero disables the stickiness
+     */
+    private Duration readYourWritesWindow = Duration.ZERO;
+
+    /**
+     * Clients remembered as recent writers at most, a client forgotten early reads from the replicas again
+     */
+    private long readYourWritesMaxClients = 100_000;
+
+    @Data
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+
+        /**
+         * How long a read waits for a connection before falling back to the primary, and the replica is taken out
+         * of rotation; kept short as a replica that is down would otherwise hold every read that picks it
+         */
+        private Duration connectionTimeout = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,31 @@
+package com.mihailstoica.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * How many SQL statements a request may run before {@link SqlStatementFilter} logs a warning
+ */
+@Data
+@ConfigurationProperties(prefix = "app.sql-budget")
+public class SqlBudgetProperties {
+
+    private int maxStatements = 10;
+
+    /**
+     * Overrides of {@link #maxStatements} keyed by endpoint, e.g. {@code GET /api/employees/{id}}
+     */
+    private Map<String, Integer> endpoints = new HashMap<>();
+
+    /**
+     * How often the same statement may run in one request before it is reported as a possible N+1
+     */
+    private int repeatedStatementThreshold = 3;
+
+    public int budgetFor(String endpoint) {
+        return endpoints.getOrDefault(endpoint, maxStatements);
+    }
+}
@@ -0,0 +1,143 @@
+package com.mihailstoica.springboot.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the SQL statements and JDBC time of each request. The totals are sent as {@value #STATEMENTS_HEADER} and
+ * {@value #TIME_HEADER} headers, recorded as {@code sql.statements.per.request} and {@code sql.time.per.request}
+ * tagged by endpoint, and logged as a warning when the endpoint's {@link SqlBudgetProperties budget} is exceeded or
+ * the same statement keeps repeating.
+ * <p>
+ * The headers are written when the response body starts, so statements run while the body is streamed are only
+ * reflected in the metrics.
+ */
+@Slf4j
+public class SqlStatementFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+
+    public static final String TIME_HEADER = "X-SQL-Time-Ms";
+
+    private final SqlBudgetProperties budget;
+
+    private final MeterRegistry meterRegistry;
+
+    public SqlStatementFilter(SqlBudgetProperties budget, MeterRegistry meterRegistry) {
+        this.budget = budget;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        SqlStatementStatistics statistics = SqlStatementStatistics.start();
+        StatisticsHeaderResponse statisticsResponse = new StatisticsHeaderResponse(response, statistics);
+        try {
+            filterChain.doFilter(request, statisticsResponse);
+        } finally {
+            statisticsResponse.writeHeaders();
+            SqlStatementStatistics.stop();
+            record(EndpointRepositoryTagsProvider.endpoint(request), statistics);
+        }
+    }
+
+    private void record(String endpoint, SqlStatementStatistics statistics) {
+
+        DistributionSummary.builder("sql.statements.per.request")
+                .baseUnit("statements")
+                .tag(EndpointRepositoryTagsProvider.ENDPOINT_TAG, endpoint)
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+        Timer.builder("sql.time.per.request")
+                .tag(EndpointRepositoryTagsProvider.ENDPOINT_TAG, endpoint)
+                .register(meterRegistry)
+                .record(statistics.getTimeNanos(), TimeUnit.NANOSECONDS);
+
+        int statementBudget = budget.budgetFor(endpoint);
+        if (statistics.getStatements() > statementBudget) {
+            log.warn("{} ran {} SQL statements in {} ms, budget is {}", endpoint, statistics.getStatements(),
+                    TimeUnit.NANOSECONDS.toMillis(statistics.getTimeNanos()), statementBudget);
+        }
+        for (Map.Entry<String, Integer> repeated :
+                statistics.getRepeatedStatements(budget.getRepeatedStatementThreshold()).entrySet()) {
+            log.warn("{} ran the same SQL statement {} times, possible N+1: {}", endpoint, repeated.getValue(),
+                    repeated.getKey());
+        }
+    }
+
+    /**
+     * Adds the statistics headers just before the response is committed
+     */
+    private static final class StatisticsHeaderResponse extends HttpServletResponseWrapper {
+
+        private final SqlStatementStatistics statistics;
+
+        private boolean headersWritten;
+
+        private StatisticsHeaderResponse(HttpServletResponse response, SqlStatementStatistics statistics) {
+            super(response);
+            this.statistics = statistics;
+        }
+
+        void writeHeaders() {
+            if (headersWritten || isCommitted()) {
+                return;
+            }
+            headersWritten = true;
+            setHeader(STATEMENTS_HEADER, Integer.toString(statistics.getStatements()));
+            setHeader(TIME_HEADER, Long.toString(TimeUnit.NANOSECONDS.toMillis(statistics.getTimeNanos())));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
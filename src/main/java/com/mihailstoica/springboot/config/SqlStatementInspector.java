@@ -0,0 +1,16 @@
+package com.mihailstoica.springboot.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every statement Hibernate prepares, JPQL, native and batched alike, without changing it
+ */
+public class SqlStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+
+        SqlStatementStatistics.statementPrepared(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,103 @@
+package com.mihailstoica.springboot.config;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SQL statements, JDBC time and connection pool wait of the current thread since {@link #start()}.
+ * Filled in by {@link SqlStatementInspector} and {@link SqlTimingSessionEventListener}; statements issued while
+ * no statistics are started (startup, background work, asynchronously streamed responses) are not counted.
+ */
+public final class SqlStatementStatistics {
+
+    private static final ThreadLocal<SqlStatementStatistics> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Integer> statementCounts = new HashMap<>();
+
+    private int statements;
+
+    private long timeNanos;
+
+    private long connectionWaitNanos;
+
+    private SqlStatementStatistics() {
+    }
+
+    /**
+     * Starts counting for the current thread, replacing any statistics already started on it
+     */
+    public static SqlStatementStatistics start() {
+
+        SqlStatementStatistics statistics = new SqlStatementStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static void stop() {
+
+        CURRENT.remove();
+    }
+
+    /**
+     * The statistics started on the current thread, {@code null} if none are
+     */
+    static SqlStatementStatistics current() {
+
+        return CURRENT.get();
+    }
+
+    static void statementPrepared(String sql) {
+
+        SqlStatementStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.statements++;
+            statistics.statementCounts.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    static void statementExecuted(long nanos) {
+
+        SqlStatementStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.timeNanos += nanos;
+        }
+    }
+
+    static void connectionAcquired(long nanos) {
+
+        SqlStatementStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.connectionWaitNanos += nanos;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getTimeNanos() {
+        return timeNanos;
+    }
+
+    /**
+     * Time spent waiting for pooled connections
+     */
+    public long getConnectionWaitNanos() {
+        return connectionWaitNanos;
+    }
+
+    /**
+     * Statements prepared at least {@code threshold} times, the usual signature of an N+1 select
+     */
+    public Map<String, Integer> getRepeatedStatements(int threshold) {
+
+        Map<String, Integer> repeatedStatements = new LinkedHashMap<>();
+        statementCounts.forEach((sql, count) -> {
+            if (count >= threshold) {
+                repeatedStatements.put(sql, count);
+            }
+        });
+        return repeatedStatements;
+    }
+}
@@ -0,0 +1,39 @@
+package com.mihailstoica.springboot.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+
+/**
+ * Wires the per-request SQL statement counting: Hibernate reports into {@link SqlStatementStatistics}
+ * and {@link SqlStatementFilter} scopes it to each request
+ */
+@Configuration
+public class SqlStatisticsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatisticsCustomizer() {
+
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementInspector());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER,
+                    SqlTimingSessionEventListener.class.getName());
+        };
+    }
+
+    @Bean
+    @Profile("!reactive")
+    public FilterRegistrationBean<SqlStatementFilter> sqlStatementFilter(SqlBudgetProperties budget,
+                                                                         MeterRegistry meterRegistry) {
+
+        FilterRegistrationBean<SqlStatementFilter> registration =
+                new FilterRegistrationBean<>(new SqlStatementFilter(budget, meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
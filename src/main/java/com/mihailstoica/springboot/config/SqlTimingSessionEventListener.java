@@ -0,0 +1,47 @@
+package com.mihailstoica.springboot.config;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Adds the time spent executing JDBC statements and batches, and waiting for connections, to the current
+ * {@link SqlStatementStatistics}.
+ * Hibernate creates one instance per session, so the start timestamps need no synchronization.
+ */
+public class SqlTimingSessionEventListener extends BaseSessionEventListener {
+
+    private long executionStart;
+
+    private long batchStart;
+
+    private long connectionAcquisitionStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlStatementStatistics.statementExecuted(System.nanoTime() - executionStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlStatementStatistics.statementExecuted(System.nanoTime() - batchStart);
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        connectionAcquisitionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        SqlStatementStatistics.connectionAcquired(System.nanoTime() - connectionAcquisitionStart);
+    }
+}
@@ -0,0 +1,94 @@
+package com.mihailstoica.springboot.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reports how long the application takes to become useful: the slowest bean instantiations from the
+ * {@link BufferingApplicationStartup} timeline (also served by the actuator startup endpoint) once it is ready,
+ * and the time from JVM start to the first handled request as {@code application.first.request.time}.
+ * Boot itself records {@code application.started.time} and {@code application.ready.time}.
+ */
+@Slf4j
+@Component
+public class StartupMonitor {
+
+    private static final String BEAN_INSTANTIATION_STEP = "spring.beans.instantiate";
+
+    private final StartupProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicBoolean firstRequestHandled = new AtomicBoolean();
+
+    public StartupMonitor(StartupProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        if (properties.getReportSize() > 0 && context.getApplicationStartup() instanceof BufferingApplicationStartup) {
+            StartupTimeline timeline = ((BufferingApplicationStartup) context.getApplicationStartup())
+                    .getBufferedTimeline();
+            log.info("Slowest bean instantiations during startup:{}", slowestBeans(timeline));
+        }
+
+        if (properties.isExitAfterReady()) {
+            log.info("Exiting after startup as requested by app.startup.exit-after-ready");
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    @EventListener
+    public void onRequestHandled(ServletRequestHandledEvent event) {
+
+        if (firstRequestHandled.get() || !firstRequestHandled.compareAndSet(false, true)) {
+            return;
+        }
+        long sinceJvmStart = event.getTimestamp() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        TimeGauge.builder("application.first.request.time", () -> sinceJvmStart, TimeUnit.MILLISECONDS)
+                .description("Time from JVM start until the first request was handled")
+                .register(meterRegistry);
+        log.info("First request {} handled {} ms after JVM start", event.getRequestUrl(), sinceJvmStart);
+    }
+
+    private String slowestBeans(StartupTimeline timeline) {
+
+        return timeline.getEvents().stream()
+                .filter(event -> BEAN_INSTANTIATION_STEP.equals(event.getStartupStep().getName()))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(properties.getReportSize())
+                .map(event -> String.format("%n  %6d ms %s", event.getDuration().toMillis(),
+                        beanName(event.getStartupStep())))
+                .collect(Collectors.joining());
+    }
+
+    private static String beanName(StartupStep step) {
+
+        return StreamSupport.stream(step.getTags().spliterator(), false)
+                .filter(tag -> "beanName".equals(tag.getKey()))
+                .map(StartupStep.Tag::getValue)
+                .findFirst()
+                .orElse("?");
+    }
+}
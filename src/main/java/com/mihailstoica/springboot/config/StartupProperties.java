@@ -0,0 +1,19 @@
+package com.mihailstoica.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.startup")
+public class StartupProperties {
+
+    /**
+     * How many of the slowest bean instantiations to log once the application is ready, 0 to log none
+     */
+    private int reportSize = 10;
+
+    /**
+     * Exit as soon as the application is ready, for the class-data-sharing training run of the fast-startup build
+     */
+    private boolean exitAfterReady;
+}
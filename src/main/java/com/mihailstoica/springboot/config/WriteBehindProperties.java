@@ -0,0 +1,48 @@
+package com.mihailstoica.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Asynchronous creates ({@code Prefer: respond-async}), queued in a local log and inserted in batches by a
+ * background writer, see {@code WriteBehindEmployeeIngestService}
+ */
+@Data
+@ConfigurationProperties(prefix = "app.write-behind")
+public class WriteBehindProperties {
+
+    private boolean enabled;
+
+    /**
+     * Where the log segments and the drain checkpoint are kept, must survive restarts to replay queued employees
+     */
+    private Path directory = Path.of("write-behind");
+
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Segments the log may span before asynchronous creates are refused with 503, bounding the disk used
+     */
+    private int maxSegments = 16;
+
+    /**
+     * How long the first of concurrent appends waits for others before forcing the log to disk for all of them
+     */
+    private Duration groupCommitDelay = Duration.ofMillis(2);
+
+    /**
+     * Employees per {@code EmployeeService.saveEmployees} call of the background writer
+     */
+    private int batchSize = 500;
+
+    private Duration drainInterval = Duration.ofMillis(200);
+
+    /**
+     * How many outcomes of drained employees are kept for their status URL, older ones are reported UNKNOWN
+     */
+    private long maximumResults = 100_000;
+}
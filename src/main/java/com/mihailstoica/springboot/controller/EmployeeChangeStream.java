@@ -0,0 +1,283 @@
+package com.mihailstoica.springboot.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mihailstoica.springboot.config.ChangeStreamProperties;
+import com.mihailstoica.springboot.model.EmployeeChange;
+import com.mihailstoica.springboot.service.EmployeeChangeService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans the employee_changes outbox out to Server-Sent Events subscribers. One thread polls the outbox and sends
+ * each batch as a {@value #CHANGES_EVENT} event whose id is the position of its last change, so a client
+ * reconnecting with {@code Last-Event-ID} resumes right after it. Subscribers at the same position share a query,
+ * in the steady state that is one query per poll for all of them.
+ * <p>
+ * A client resuming from a position the retention has already deleted is sent a {@value #RESET_EVENT} event: it
+ * has to re-read the employees and continues from the latest change.
+ * <p>
+ * Outbox ids are allocated when the changes are inserted, not when they commit, so a missing id may belong to a
+ * transaction still running. Changes after such a gap are held back until it is filled, or has been open for the
+ * gap timeout: a rolled back transaction leaves its ids unused for ever.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class EmployeeChangeStream implements InitializingBean, DisposableBean {
+
+    static final String CHANGES_EVENT = "changes";
+
+    static final String RESET_EVENT = "reset";
+
+    private final EmployeeChangeService employeeChangeService;
+
+    private final ChangeStreamProperties properties;
+
+    private final ObjectWriter changesWriter;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService poller;
+
+    private long lastPurgeNanos;
+
+    /**
+     * When each gap, keyed by its first missing id, was first seen; only touched by the poller thread
+     */
+    private Map<Long, Long> gapsFirstSeenNanos = new HashMap<>();
+
+    public EmployeeChangeStream(EmployeeChangeService employeeChangeService, ChangeStreamProperties properties,
+                                ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+
+        this.employeeChangeService = employeeChangeService;
+        this.properties = properties;
+        this.changesWriter = objectMapper.writerFor(new TypeReference<List<EmployeeChange>>() {
+        });
+
+        Gauge.builder("employees.changes.subscribers", subscribers, Set::size)
+                .description("Open employee change streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param lastEventId the position to resume after, {@code null} to only receive changes from now on; a write
+     *                    still committing while the stream starts may be missed, its id being below the latest one
+     */
+    public SseEmitter subscribe(Long lastEventId) throws IOException {
+
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        long position;
+        if (lastEventId == null) {
+            position = employeeChangeService.getLatestChangeId();
+        } else if (isPurged(lastEventId)) {
+            position = employeeChangeService.getLatestChangeId();
+            //sent before the handler returns, the emitter holds it until the response is ready
+            emitter.send(SseEmitter.event().id(String.valueOf(position)).name(RESET_EVENT).data(position));
+        } else {
+            position = lastEventId;
+        }
+
+        Subscriber subscriber = new Subscriber(emitter, position);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * @return true if changes after the position may have been deleted by the retention. An empty outbox never had a
+     * change, the latest one being kept, so any position in it comes from elsewhere, e.g. a recreated database.
+     */
+    private boolean isPurged(long lastEventId) {
+
+        long oldestChangeId = employeeChangeService.getOldestChangeId();
+        return oldestChangeId == 0 ? lastEventId > 0 : lastEventId < oldestChangeId - 1;
+    }
+
+    /**
+     * Sends every subscriber the changes after its position, batch by batch until it is caught up
+     */
+    void poll() {
+
+        Map<Long, Long> gapsSeenNanos = new HashMap<>();
+        Map<Long, List<Subscriber>> subscribersByPosition = new LinkedHashMap<>();
+        for (Subscriber subscriber : subscribers) {
+            subscribersByPosition.computeIfAbsent(subscriber.position, position -> new ArrayList<>())
+                    .add(subscriber);
+        }
+
+        for (Map.Entry<Long, List<Subscriber>> entry : subscribersByPosition.entrySet()) {
+            long position = entry.getKey();
+            List<Subscriber> group = entry.getValue();
+            List<EmployeeChange> changes;
+            int sendable;
+            do {
+                changes = employeeChangeService.getChangesAfter(position, properties.getBatchSize());
+                sendable = sendableChanges(position, changes, gapsSeenNanos);
+                if (sendable == 0) {
+                    break;
+                }
+                changes = changes.subList(0, sendable);
+                long lastId = changes.get(changes.size() - 1).getId();
+                //serialized once for the whole group, an event builder can only be sent once
+                String data = toJson(changes);
+                group.removeIf(subscriber -> !subscriber.send(SseEmitter.event()
+                        .id(String.valueOf(lastId))
+                        .name(CHANGES_EVENT)
+                        .data(data, MediaType.APPLICATION_JSON)));
+                group.forEach(subscriber -> subscriber.position = lastId);
+                position = lastId;
+            } while (sendable == properties.getBatchSize() && !group.isEmpty());
+        }
+        //gaps no longer seen were filled or skipped
+        gapsFirstSeenNanos = gapsSeenNanos;
+
+        long heartbeatNanos = properties.getHeartbeatInterval().toNanos();
+        for (Subscriber subscriber : subscribers) {
+            if (System.nanoTime() - subscriber.lastSentNanos >= heartbeatNanos) {
+                subscriber.send(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    /**
+     * @return how many of the changes read after the position can be sent, those before the first gap that is
+     * younger than the gap timeout
+     */
+    private int sendableChanges(long position, List<EmployeeChange> changes, Map<Long, Long> gapsSeenNanos) {
+
+        long expectedId = position + 1;
+        for (int index = 0; index < changes.size(); index++) {
+            long id = changes.get(index).getId();
+            if (id != expectedId) {
+                long firstSeenNanos = gapsSeenNanos.computeIfAbsent(expectedId,
+                        missingId -> gapsFirstSeenNanos.getOrDefault(missingId, System.nanoTime()));
+                if (System.nanoTime() - firstSeenNanos < properties.getGapTimeout().toNanos()) {
+                    return index;
+                }
+            }
+            expectedId = id + 1;
+        }
+        return changes.size();
+    }
+
+    private String toJson(List<EmployeeChange> changes) {
+
+        try {
+            return changesWriter.writeValueAsString(changes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void purge() {
+
+        if (properties.getPurgeInterval().isZero()
+                || System.nanoTime() - lastPurgeNanos < properties.getPurgeInterval().toNanos()) {
+            return;
+        }
+        lastPurgeNanos = System.nanoTime();
+        int purgedChanges = employeeChangeService.purgeChanges(properties.getRetention());
+        if (purgedChanges > 0) {
+            log.info("Purged {} employee changes older than {}", purgedChanges, properties.getRetention());
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+
+        lastPurgeNanos = System.nanoTime();
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-change-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(() -> {
+            try {
+                //nothing to read while nobody listens
+                if (!subscribers.isEmpty()) {
+                    poll();
+                }
+                purge();
+            } catch (RuntimeException e) {
+                log.warn("Polling employee changes failed", e);
+            }
+        }, properties.getPollInterval().toMillis(), properties.getPollInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ends the streams before the web server shuts down, which otherwise waits for them to time out
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void completeSubscribers() {
+
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    @Override
+    public void destroy() {
+
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        /**
+         * Id of the last change sent, only touched by the poller thread after subscribing
+         */
+        private long position;
+
+        private long lastSentNanos = System.nanoTime();
+
+        private Subscriber(SseEmitter emitter, long position) {
+            this.emitter = emitter;
+            this.position = position;
+        }
+
+        /**
+         * @return false if the client is gone, it is then unsubscribed
+         */
+        private boolean send(SseEmitter.SseEventBuilder event) {
+
+            try {
+                emitter.send(event);
+                lastSentNanos = System.nanoTime();
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                //the container reports the failure to the emitter callbacks, nothing to complete here
+                subscribers.remove(this);
+                return false;
+            }
+        }
+    }
+}
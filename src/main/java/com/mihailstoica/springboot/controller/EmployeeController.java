@@ -1,22 +1,58 @@
 package com.mihailstoica.springboot.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.model.EmployeeBatchResult;
+import com.mihailstoica.springboot.model.EmployeePage;
+import com.mihailstoica.springboot.model.EmployeePatch;
+import com.mihailstoica.springboot.model.EmployeeSearchResult;
+import com.mihailstoica.springboot.model.RevisionedEmployees;
+import com.mihailstoica.springboot.service.EmployeeSearchService;
 import com.mihailstoica.springboot.service.EmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongPredicate;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/employees")
 public class EmployeeController {
 
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    static final String LAST_EVENT_ID = "Last-Event-ID";
+
     private final EmployeeService employeeService;
 
-    public EmployeeController(EmployeeService employeeService) {
+    private final EmployeeSearchService employeeSearchService;
+
+    private final EmployeeChangeStream employeeChangeStream;
+
+    private final ObjectWriter exportWriter;
+
+    public EmployeeController(EmployeeService employeeService, EmployeeSearchService employeeSearchService,
+                              EmployeeChangeStream employeeChangeStream, ObjectMapper objectMapper) {
 
         this.employeeService = employeeService;
+        this.employeeSearchService = employeeSearchService;
+        this.employeeChangeStream = employeeChangeStream;
+        this.exportWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @PostMapping
@@ -26,40 +62,213 @@ public class EmployeeController {
         return employeeService.saveEmployee(employee);
     }
 
+    @PostMapping(params = "upsert=true")
+    public Employee upsertEmployee(@RequestBody Employee employee) {
+
+        return employeeService.upsertEmployee(employee);
+    }
+
+    @PostMapping("batch")
+    public ResponseEntity<List<EmployeeBatchResult>> createEmployees(@RequestBody List<Employee> employees) {
+
+        if (employees.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+
+        return ResponseEntity.ok(employeeService.saveEmployees(employees));
+    }
+
+    /*
+     * ETags: an employee is tagged with its version, the list endpoints with the employees revision. Both are read
+     * with a primary key lookup, so If-None-Match is answered with 304 before any employee is loaded or serialized.
+     * The revision is read before the employees and in the same transaction, on the same database, so a tag is
+     * never newer than the body it comes with. Responses vary by Accept, the same version may be sent as JSON, CBOR
+     * or Smile.
+     */
+
     @GetMapping
-    public List<Employee> getAllEmployees() {
+    public ResponseEntity<List<Employee>> getAllEmployees(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        RevisionedEmployees<List<Employee>> employees = employeeService.getAllEmployees(isCurrent(ifNoneMatch));
+        String etag = EntityTags.of(employees.getRevision());
+        if (employees.getEmployees() == null) {
+            return notModified(etag);
+        }
 
-        return employeeService.getAllEmployees();
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(employees.getEmployees());
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<EmployeePage> getEmployeePage(@RequestParam("limit") int limit,
+                                                        @RequestParam(value = "cursor", required = false) String cursor,
+                                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH,
+                                                                required = false) String ifNoneMatch) {
+        long afterId;
+        try {
+            afterId = cursor == null ? 0L : EmployeePage.decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        RevisionedEmployees<EmployeePage> page = employeeService.getEmployeePage(afterId, limit,
+                isCurrent(ifNoneMatch));
+        String etag = EntityTags.of(page.getRevision());
+        if (page.getEmployees() == null) {
+            return notModified(etag);
+        }
+
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(page.getEmployees());
+    }
+
+    @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportEmployees() {
+
+        //a bare StreamingResponseBody skips content negotiation, the type has to be set on the response
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = exportWriter.getFactory().createGenerator(outputStream)) {
+                //one document per line, no separator between root values
+                generator.setRootValueSeparator(null);
+                employeeService.exportEmployees(employee -> {
+                    try {
+                        exportWriter.writeValue(generator, employee);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Changes to employees as Server-Sent Events, see {@link EmployeeChangeStream}. Browsers' EventSource resends
+     * the id of the last event received as {@code Last-Event-ID} when reconnecting.
+     */
+    @GetMapping(value = "changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(@RequestHeader(value = LAST_EVENT_ID,
+            required = false) String lastEventId) throws IOException {
+
+        Long position = null;
+        if (lastEventId != null) {
+            try {
+                position = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
+        return ResponseEntity.ok(employeeChangeStream.subscribe(position));
+    }
+
+    @GetMapping("search")
+    public EmployeeSearchResult searchEmployees(@RequestParam("q") String query,
+                                                @RequestParam(value = "page", defaultValue = "0") int page,
+                                                @RequestParam(value = "size", defaultValue = "20") int size) {
+
+        return employeeSearchService.search(query, page, size);
     }
 
     @GetMapping("{id}")
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId) {
+    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH,
+                                                            required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Optional<Long> version = employeeService.getEmployeeVersion(employeeId);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            String etag = EntityTags.of(version.get());
+            if (EntityTags.noneMatchFails(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
+        }
 
         return employeeService.getEmployeeById(employeeId)
-                .map(ResponseEntity::ok)
+                .map(employee -> ResponseEntity.ok().eTag(EntityTags.of(employee.getVersion()))
+                        .varyBy(HttpHeaders.ACCEPT).body(employee))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PutMapping("{id}")
     public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long employeeId,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH,
+                                                           required = false) String ifMatch,
                                                    @RequestBody Employee employee) {
         return employeeService.getEmployeeById(employeeId)
                 .map(savedEmployee -> {
+                    //the loaded version is also the one the update is checked against, a concurrent change is a 409
+                    if (ifMatch != null && !EntityTags.matches(ifMatch, EntityTags.of(savedEmployee.getVersion()))) {
+                        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).<Employee>build();
+                    }
                     savedEmployee.setFirstName(employee.getFirstName());
                     savedEmployee.setLastName(employee.getLastName());
                     savedEmployee.setEmail(employee.getEmail());
 
                     Employee updatedEmployee = employeeService.updateEmployee(savedEmployee);
-                    return new ResponseEntity<>(updatedEmployee, HttpStatus.OK);
+                    return ResponseEntity.ok().eTag(EntityTags.of(updatedEmployee.getVersion()))
+                            .varyBy(HttpHeaders.ACCEPT).body(updatedEmployee);
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @PatchMapping("{id}")
+    public ResponseEntity<Void> patchEmployee(@PathVariable("id") long employeeId, @RequestBody EmployeePatch patch) {
+
+        if (patch.getVersion() == null || !patch.hasChanges()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return employeeService.patchEmployee(employeeId, patch)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
     @DeleteMapping("{id}")
-    public ResponseEntity<String> deleteEmployee(@PathVariable("id") long employeeId) {
+    public ResponseEntity<Void> deleteEmployee(@PathVariable("id") long employeeId,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH,
+                                                       required = false) String ifMatch) {
+        if (ifMatch == null || EntityTags.isAny(ifMatch)) {
+            return employeeService.deleteEmployee(employeeId)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.notFound().build();
+        }
+
+        //the version is checked by the DELETE statement itself
+        for (long version : EntityTags.matchingVersions(ifMatch)) {
+            if (employeeService.deleteEmployee(employeeId, version)) {
+                return ResponseEntity.noContent().build();
+            }
+        }
+        //only the failure path pays for a second statement, to tell a missing employee from a changed one
+        return employeeService.getEmployeeVersion(employeeId).isPresent()
+                ? ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping(params = "ids")
+    public Map<String, Integer> deleteEmployees(@RequestParam("ids") List<Long> employeeIds) {
+
+        return Map.of("deleted", employeeService.deleteEmployees(employeeIds));
+    }
+
+    /**
+     * Whether a revision is one the client already has, as listed in its {@code If-None-Match}
+     */
+    private static LongPredicate isCurrent(String ifNoneMatch) {
+
+        return revision -> ifNoneMatch != null && EntityTags.noneMatchFails(ifNoneMatch, EntityTags.of(revision));
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+    }
 
-        employeeService.deleteEmployee(employeeId);
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Void> handleOptimisticLockingFailure() {
 
-        return new ResponseEntity<>("Employee deleted successfully!", HttpStatus.OK);
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
     }
 }
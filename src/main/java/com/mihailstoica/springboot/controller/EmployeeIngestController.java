@@ -0,0 +1,75 @@
+package com.mihailstoica.springboot.controller;
+
+import com.mihailstoica.springboot.exception.WriteBehindFullException;
+import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.model.EmployeeIngestStatus;
+import com.mihailstoica.springboot.service.EmployeeIngestService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+
+/**
+ * Asynchronous creates, opted into per request with {@code Prefer: respond-async}, alone or next to other
+ * preferences. Without it a POST is still handled synchronously by {@link EmployeeController}.
+ */
+@RestController
+@Profile("!reactive")
+@ConditionalOnProperty(name = "app.write-behind.enabled", havingValue = "true")
+@RequestMapping("/api/employees")
+public class EmployeeIngestController {
+
+    static final String PREFER_RESPOND_ASYNC = "respond-async";
+
+    /**
+     * Seconds a client is asked to wait when the write-behind log is full
+     */
+    static final String FULL_RETRY_AFTER = "5";
+
+    private final EmployeeIngestService employeeIngestService;
+
+    public EmployeeIngestController(EmployeeIngestService employeeIngestService) {
+        this.employeeIngestService = employeeIngestService;
+    }
+
+    @PostMapping
+    @PreferMapping(PREFER_RESPOND_ASYNC)
+    public ResponseEntity<EmployeeIngestStatus> createEmployeeAsync(@RequestBody Employee employee) {
+
+        //checked up front, the client is gone by the time the writer inserts it
+        if (employee.getFirstName() == null || employee.getLastName() == null || employee.getEmail() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        EmployeeIngestStatus status = employeeIngestService.enqueue(employee);
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/employees/ingest/{sequence}")
+                .buildAndExpand(status.getSequence())
+                .toUri();
+        return ResponseEntity.accepted()
+                .location(location)
+                .header("Preference-Applied", PREFER_RESPOND_ASYNC)
+                .body(status);
+    }
+
+    @GetMapping("ingest/{sequence}")
+    public ResponseEntity<EmployeeIngestStatus> getIngestStatus(@PathVariable("sequence") long sequence) {
+
+        return employeeIngestService.getStatus(sequence)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @ExceptionHandler(WriteBehindFullException.class)
+    public ResponseEntity<Void> handleWriteBehindFull() {
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, FULL_RETRY_AFTER)
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.mihailstoica.springboot.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Weak entity tags built from a version number, such as {@code Employee.version} or the employees revision, so they
+ * are compared without ever hashing a response body. Weak because the JSON, CBOR and Smile bodies of a version, and
+ * their gzip encodings, share the tag: it names the version, not the bytes, which rules out byte ranges but leaves
+ * Tomcat compressing the responses.
+ * <p>
+ * {@code If-Match} is compared on the version as well, a deliberate deviation from RFC 7232, section 3.1, which
+ * requires the strong comparison there and so would never let a weak tag match. Strong tags would have to differ
+ * per format and per encoding, and a client could then only update with the tag of the exact bytes it was sent.
+ * The tags are only used to detect lost updates, for which the version is exactly what has to match: a client
+ * sending a tag of an older version still gets a 412. The cost is that a client or intermediary following the
+ * RFC strictly would expect a 412 wherever it sends a weak tag, and sees the update applied instead.
+ */
+final class EntityTags {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private EntityTags() {
+    }
+
+    static String of(long version) {
+        return WEAK_PREFIX + "\"" + version + "\"";
+    }
+
+    /**
+     * Weak comparison of {@code If-None-Match}
+     *
+     * @return true if the header lists the tag or is {@code *}
+     */
+    static boolean noneMatchFails(String ifNoneMatch, String tag) {
+
+        for (String candidate : split(ifNoneMatch)) {
+            if (candidate.equals("*") || stripWeak(candidate).equals(stripWeak(tag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The versions listed in {@code If-Match}, weak or not, malformed tags never match
+     */
+    static List<Long> matchingVersions(String ifMatch) {
+
+        List<Long> versions = new ArrayList<>();
+        for (String tag : split(ifMatch)) {
+            String candidate = stripWeak(tag);
+            if (candidate.length() > 2 && candidate.startsWith("\"") && candidate.endsWith("\"")) {
+                try {
+                    versions.add(Long.parseLong(candidate.substring(1, candidate.length() - 1)));
+                } catch (NumberFormatException e) {
+                    //not one of ours, it cannot match
+                }
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Comparison of {@code If-Match} on the version, see above
+     *
+     * @return true if the header lists the tag or is {@code *}
+     */
+    static boolean matches(String ifMatch, String tag) {
+
+        for (String candidate : split(ifMatch)) {
+            if (candidate.equals("*") || stripWeak(candidate).equals(stripWeak(tag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isAny(String header) {
+        return header.trim().equals("*");
+    }
+
+    private static List<String> split(String header) {
+
+        List<String> tags = new ArrayList<>();
+        for (String tag : header.split(",")) {
+            if (!tag.isBlank()) {
+                tags.add(tag.trim());
+            }
+        }
+        return tags;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+    }
+}
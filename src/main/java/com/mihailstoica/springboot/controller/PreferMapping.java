@@ -0,0 +1,23 @@
+package com.mihailstoica.springboot.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Narrows a handler method to requests whose {@code Prefer} header lists the preference, among others and with or
+ * without a value, e.g. {@code Prefer: handling=lenient, respond-async, wait=5}. A {@code headers} condition would
+ * only match the header value as a whole.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface PreferMapping {
+
+    /**
+     * Name of the preference, compared ignoring case
+     */
+    String value();
+}
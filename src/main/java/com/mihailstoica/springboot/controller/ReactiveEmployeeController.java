@@ -0,0 +1,108 @@
+package com.mihailstoica.springboot.controller;
+
+import com.mihailstoica.springboot.model.ReactiveEmployee;
+import com.mihailstoica.springboot.service.ReactiveEmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link EmployeeController} with the same /api/employees contract,
+ * active with the "reactive" profile
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/employees")
+public class ReactiveEmployeeController {
+
+    /**
+     * Rows requested from the database at a time while streaming, so a slow client holds back the query
+     */
+    public static final int STREAM_PREFETCH = 256;
+
+    private final ReactiveEmployeeService employeeService;
+
+    public ReactiveEmployeeController(ReactiveEmployeeService employeeService) {
+
+        this.employeeService = employeeService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<ReactiveEmployee> createEmployee(@RequestBody ReactiveEmployee employee) {
+
+        return employeeService.saveEmployee(employee);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<ReactiveEmployee> getAllEmployees() {
+
+        return employeeService.getAllEmployees();
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ReactiveEmployee> streamAllEmployees() {
+
+        return employeeService.getAllEmployees().limitRate(STREAM_PREFETCH);
+    }
+
+    @GetMapping("{id}")
+    public Mono<ResponseEntity<ReactiveEmployee>> getEmployeeById(@PathVariable("id") long employeeId) {
+
+        return employeeService.getEmployeeById(employeeId)
+                .map(employee -> ResponseEntity.ok().eTag(EntityTags.of(employee.getVersion())).body(employee))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * The update is checked against the version the client read, from {@code If-Match} (412 if stale) or from the
+     * body (409 if stale); without either it applies to the current version
+     */
+    @PutMapping("{id}")
+    public Mono<ResponseEntity<ReactiveEmployee>> updateEmployee(@PathVariable("id") long employeeId,
+                                                                 @RequestHeader(value = HttpHeaders.IF_MATCH,
+                                                                         required = false) String ifMatch,
+                                                                 @RequestBody ReactiveEmployee employee) {
+        return employeeService.getEmployeeById(employeeId)
+                .flatMap(savedEmployee -> {
+                    if (ifMatch != null && !EntityTags.matches(ifMatch, EntityTags.of(savedEmployee.getVersion()))) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                                .<ReactiveEmployee>build());
+                    }
+                    savedEmployee.setFirstName(employee.getFirstName());
+                    savedEmployee.setLastName(employee.getLastName());
+                    savedEmployee.setEmail(employee.getEmail());
+                    if (employee.getVersion() != null) {
+                        //saved with "where version = ?", a stale version is an OptimisticLockingFailureException
+                        savedEmployee.setVersion(employee.getVersion());
+                    }
+
+                    return employeeService.updateEmployee(savedEmployee)
+                            .map(updatedEmployee -> ResponseEntity.ok()
+                                    .eTag(EntityTags.of(updatedEmployee.getVersion()))
+                                    .body(updatedEmployee));
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("{id}")
+    public Mono<ResponseEntity<Void>> deleteEmployee(@PathVariable("id") long employeeId) {
+
+        return employeeService.deleteEmployee(employeeId)
+                .map(deleted -> deleted
+                        ? ResponseEntity.noContent().<Void>build()
+                        : ResponseEntity.notFound().<Void>build());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Void> handleOptimisticLockingFailure() {
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+}
@@ -0,0 +1,9 @@
+package com.mihailstoica.springboot.exception;
+
+public class WriteBehindFullException extends RuntimeException {
+
+    public WriteBehindFullException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.mihailstoica.springboot.migration;
+
+import com.mihailstoica.springboot.model.Employee;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Completes an employees table created by {@code hibernate.ddl-auto=update} before the migrations existed, which
+ * V1 leaves as it is: it has neither the {@code version} column of optimistic locking nor the unique key on email
+ * the duplicate checks and the upsert rely on. A Java migration because MySQL has no {@code add column if not
+ * exists}; on a database created by V1 it changes nothing.
+ */
+public class V6__Adopt_ddl_auto_update_schema extends BaseJavaMigration {
+
+    private static final String TABLE = "employees";
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            if (!hasColumn(connection, "version")) {
+                statement.execute("alter table employees add column version bigint not null default 0");
+            }
+            if (!hasUniqueIndex(connection, Employee.EMAIL_UNIQUE_CONSTRAINT)) {
+                //the database would refuse the key anyway, this says what to do about it
+                try (ResultSet duplicates = statement.executeQuery(
+                        "select count(*) from (select email from employees group by email having count(*) > 1) d")) {
+                    duplicates.next();
+                    if (duplicates.getLong(1) > 0) {
+                        throw new IllegalStateException(duplicates.getLong(1) + " emails are used by more than one"
+                                + " employee, make them unique before " + Employee.EMAIL_UNIQUE_CONSTRAINT
+                                + " can be added");
+                    }
+                }
+                statement.execute("alter table employees add constraint " + Employee.EMAIL_UNIQUE_CONSTRAINT
+                        + " unique (email)");
+            }
+        }
+    }
+
+    private static boolean hasColumn(Connection connection, String column) throws SQLException {
+
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet columns = metaData.getColumns(connection.getCatalog(), connection.getSchema(),
+                identifier(metaData, TABLE), identifier(metaData, column))) {
+            return columns.next();
+        }
+    }
+
+    /**
+     * Compared like {@code EmployeeServiceImpl} tells a duplicate email apart, H2 suffixes the index of a constraint
+     */
+    private static boolean hasUniqueIndex(Connection connection, String name) throws SQLException {
+
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(),
+                identifier(metaData, TABLE), true, true)) {
+            while (indexes.next()) {
+                String indexName = indexes.getString("INDEX_NAME");
+                if (indexName != null && indexName.toLowerCase().contains(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static String identifier(DatabaseMetaData metaData, String name) throws SQLException {
+        return metaData.storesUpperCaseIdentifiers() ? name.toUpperCase() : name;
+    }
+}
@@ -1,20 +1,28 @@
 package com.mihailstoica.springboot.model;
 
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 
 @Entity
-@Table(name = "employees")
+@DynamicUpdate
+@Table(name = "employees", uniqueConstraints = @UniqueConstraint(name = Employee.EMAIL_UNIQUE_CONSTRAINT,
+        columnNames = "email"),
+        indexes = @Index(name = "idx_employees_first_name_last_name", columnList = "first_name, last_name"))
 public class Employee {
 
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "uk_employees_email";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    //a pooled sequence (a table on MySQL) keeps JDBC insert batching enabled, IDENTITY would disable it
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_seq")
+    @SequenceGenerator(name = "employees_seq", sequenceName = "employees_seq", allocationSize = 50)
     private long id;
 
     @Column(name = "first_name", nullable = false)
@@ -25,4 +33,7 @@ public class Employee {
 
     @Column(nullable = false)
     private String email;
+
+    @Version
+    private long version;
 }
@@ -0,0 +1,28 @@
+package com.mihailstoica.springboot.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one row of a bulk create, {@code index} is the position of the row in the request
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeBatchResult {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID
+    }
+
+    private int index;
+
+    private Status status;
+
+    private Long id;
+
+    private String email;
+}
@@ -0,0 +1,31 @@
+package com.mihailstoica.springboot.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A row of the employee_changes outbox, {@code id} is its position in the change stream.
+ * The fields are those of the {@link EmployeeChangedEvent} it was recorded from.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeChange {
+
+    private long id;
+
+    private EmployeeChangedEvent.Type type;
+
+    private long employeeId;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+
+    private Instant changedAt;
+}
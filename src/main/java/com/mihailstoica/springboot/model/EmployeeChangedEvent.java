@@ -0,0 +1,41 @@
+package com.mihailstoica.springboot.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published by {@code EmployeeServiceImpl} for every employee it creates, changes or deletes.
+ * For a patch only the changed fields are set, the others are {@code null}.
+ */
+@Data
+@AllArgsConstructor
+public class EmployeeChangedEvent {
+
+    public enum Type {
+        SAVED, PATCHED, DELETED
+    }
+
+    private Type type;
+
+    private long id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+
+    public static EmployeeChangedEvent saved(Employee employee) {
+        return new EmployeeChangedEvent(Type.SAVED, employee.getId(), employee.getFirstName(),
+                employee.getLastName(), employee.getEmail());
+    }
+
+    public static EmployeeChangedEvent patched(long id, EmployeePatch patch) {
+        return new EmployeeChangedEvent(Type.PATCHED, id, patch.getFirstName(), patch.getLastName(),
+                patch.getEmail());
+    }
+
+    public static EmployeeChangedEvent deleted(long id) {
+        return new EmployeeChangedEvent(Type.DELETED, id, null, null, null);
+    }
+}
@@ -0,0 +1,37 @@
+package com.mihailstoica.springboot.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of an asynchronous create, {@code sequence} is its position in the write-behind log.
+ * {@code id} is only set once the employee has been {@link State#CREATED}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeIngestStatus {
+
+    public enum State {
+        QUEUED,
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        /**
+         * Rejected by the database on its own, e.g. a value too long for its column; it is not retried
+         */
+        FAILED,
+        /**
+         * Processed, but its outcome is no longer kept, e.g. after a restart: it may have been created as well as
+         * rejected, look the employee up by email to tell
+         */
+        UNKNOWN
+    }
+
+    private long sequence;
+
+    private State state;
+
+    private Long id;
+}
@@ -0,0 +1,119 @@
+package com.mihailstoica.springboot.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Hand-written (de)serialization of {@link Employee}, registered with every ObjectMapper Spring Boot builds.
+ * Fields are written straight to the generator with pre-encoded names, in the order and with the null handling of
+ * the reflective bean serializer, so the JSON is byte for byte the same; lists of employees go through Jackson's
+ * list serializer, which resolves this serializer once per list. Keep both in line with the fields of Employee.
+ */
+@Component
+public class EmployeeJacksonModule extends SimpleModule {
+
+    private static final SerializedString ID = new SerializedString("id");
+
+    private static final SerializedString FIRST_NAME = new SerializedString("firstName");
+
+    private static final SerializedString LAST_NAME = new SerializedString("lastName");
+
+    private static final SerializedString EMAIL = new SerializedString("email");
+
+    private static final SerializedString VERSION = new SerializedString("version");
+
+    public EmployeeJacksonModule() {
+        super(EmployeeJacksonModule.class.getSimpleName());
+        addSerializer(Employee.class, new EmployeeSerializer());
+        addDeserializer(Employee.class, new EmployeeDeserializer());
+    }
+
+    static final class EmployeeSerializer extends StdSerializer<Employee> {
+
+        EmployeeSerializer() {
+            super(Employee.class);
+        }
+
+        @Override
+        public void serialize(Employee employee, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+
+            generator.writeStartObject(employee);
+            generator.writeFieldName(ID);
+            generator.writeNumber(employee.getId());
+            generator.writeFieldName(FIRST_NAME);
+            generator.writeString(employee.getFirstName());
+            generator.writeFieldName(LAST_NAME);
+            generator.writeString(employee.getLastName());
+            generator.writeFieldName(EMAIL);
+            generator.writeString(employee.getEmail());
+            generator.writeFieldName(VERSION);
+            generator.writeNumber(employee.getVersion());
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Coerces values and handles unknown properties through the same DeserializationContext settings as the bean
+     * deserializer it replaces
+     */
+    static final class EmployeeDeserializer extends StdDeserializer<Employee> {
+
+        EmployeeDeserializer() {
+            super(Employee.class);
+        }
+
+        @Override
+        public Employee deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+
+            String name;
+            if (parser.isExpectedStartObjectToken()) {
+                name = parser.nextFieldName();
+            } else if (parser.hasToken(JsonToken.FIELD_NAME)) {
+                name = parser.currentName();
+            } else {
+                return (Employee) context.handleUnexpectedToken(Employee.class, parser);
+            }
+
+            Employee employee = new Employee();
+            for (; name != null; name = parser.nextFieldName()) {
+                parser.nextToken();
+                switch (name) {
+                    case "id":
+                        employee.setId(_parseLongPrimitive(parser, context));
+                        break;
+                    case "firstName":
+                        employee.setFirstName(string(parser, context));
+                        break;
+                    case "lastName":
+                        employee.setLastName(string(parser, context));
+                        break;
+                    case "email":
+                        employee.setEmail(string(parser, context));
+                        break;
+                    case "version":
+                        employee.setVersion(_parseLongPrimitive(parser, context));
+                        break;
+                    default:
+                        handleUnknownProperty(parser, context, employee, name);
+                }
+            }
+            return employee;
+        }
+
+        private String string(JsonParser parser, DeserializationContext context) throws IOException {
+
+            return parser.hasToken(JsonToken.VALUE_NULL) ? null : _parseString(parser, context);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.mihailstoica.springboot.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One slice of the employees table, ordered by id, plus an opaque cursor pointing at the next slice.
+ * The cursor is {@code null} once the last slice has been returned.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeePage {
+
+    private List<Employee> employees;
+
+    private String next;
+
+    /**
+     * Encodes the last id of a slice as an opaque, url-safe cursor
+     */
+    public static String encodeCursor(long lastId) {
+
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encodeCursor(long)}
+     *
+     * @throws IllegalArgumentException if the cursor was not produced by this class
+     */
+    public static long decodeCursor(String cursor) {
+
+        try {
+            long lastId = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+            if (lastId < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return lastId;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.mihailstoica.springboot.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Partial update of an {@link Employee}: {@code null} fields are left unchanged,
+ * {@code version} is the version the client last read and is required
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmployeePatch {
+
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+
+    private Long version;
+
+    @JsonIgnore
+    public boolean hasChanges() {
+
+        return firstName != null || lastName != null || email != null;
+    }
+}
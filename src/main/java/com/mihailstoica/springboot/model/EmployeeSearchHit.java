@@ -0,0 +1,28 @@
+package com.mihailstoica.springboot.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeSearchHit {
+
+    /**
+     * How the query matched the best of first name, last name, full name and email, best first
+     */
+    public enum Match {
+        EXACT, PREFIX, INFIX
+    }
+
+    private long id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+
+    private Match match;
+}
@@ -0,0 +1,20 @@
+package com.mihailstoica.springboot.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of ranked search hits plus the number of employees matching the query
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeSearchResult {
+
+    private List<EmployeeSearchHit> hits;
+
+    private int total;
+}
@@ -0,0 +1,33 @@
+package com.mihailstoica.springboot.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * R2DBC mapping of the employees table used by the reactive stack. It is kept apart from the JPA
+ * {@link Employee} entity because Spring Data assigns repositories to a store by the domain type's
+ * annotations, and the JPA store rejects reactive repositories. Columns map by the default
+ * snake_case naming strategy and the JSON shape matches {@link Employee}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+
+@Table("employees")
+public class ReactiveEmployee {
+
+    @Id
+    private Long id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+
+    @Version
+    private Long version;
+}
@@ -0,0 +1,17 @@
+package com.mihailstoica.springboot.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Employees read together with the employees revision, in the same transaction, so the revision is never newer
+ * than them. The employees are {@code null} when the caller already had that revision and they were not read.
+ */
+@Data
+@AllArgsConstructor
+public class RevisionedEmployees<T> {
+
+    private long revision;
+
+    private T employees;
+}
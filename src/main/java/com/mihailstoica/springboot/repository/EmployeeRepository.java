@@ -1,40 +1,183 @@
 package com.mihailstoica.springboot.repository;
 
 import com.mihailstoica.springboot.model.Employee;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeRepositoryCustom {
+
+    /**
+     * JDBC fetch size used when streaming the whole table; on MySQL it only takes effect
+     * together with the useCursorFetch=true connection property
+     */
+    String EXPORT_FETCH_SIZE = "1000";
+
+    /**
+     * Rows of employees_revision, inserted by the V7 migration; a write picking a slot that has no row would leave
+     * the revision unchanged, raising it takes a migration adding the rows first
+     */
+    int REVISION_SLOTS = 16;
+
+    /*
+     * Finders returning entities carry HINT_READONLY: Hibernate keeps no loaded-state snapshot for dirty checking
+     * of the entities they load, so changes made to those are never written back. Flushing is left to the caller's
+     * transaction, the read-only service methods run with FlushMode.MANUAL.
+     */
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
 /*
     @Query(value = "select e from Employee e where e.email=:word")
     Employee getEmployeeByEmail(@Param("word") String word, Pageable pageable);
 */
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
     Optional<Employee> findByEmail(String email);
 
+    /**
+     * Returns the subset of the given emails that are already taken, in a single query
+     */
+    @Query("select e.email from Employee e where e.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Keyset pagination: seeks past the last id of the previous slice using the primary key,
+     * so no OFFSET scan and, because the return type is a List, no COUNT query is issued
+     */
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
+    List<Employee> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    /**
+     * Forward-only stream over the whole table, must be consumed inside a transaction and closed afterwards
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select e from Employee e order by e.id")
+    Stream<Employee> streamAllByOrderByIdAsc();
+
+    /**
+     * Deletes with a single statement, unlike deleteById which loads the entity first
+     *
+     * @return the number of deleted rows, 0 if the id does not exist
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Employee e where e.id = :id")
+    int deleteEmployeeById(@Param("id") long id);
+
+    /**
+     * Deletes the employee only if it still has the given version
+     *
+     * @return the number of deleted rows, 0 if the id does not exist or has another version
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Employee e where e.id = :id and e.version = :version")
+    int deleteEmployeeByIdAndVersion(@Param("id") long id, @Param("version") long version);
+
+    /**
+     * Deletes all the given ids with a single IN statement, callers are expected to bound the list size
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Employee e where e.id in :ids")
+    int deleteEmployeesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * The given ids that exist, locked until the transaction ends so a delete that follows removes exactly these
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e.id from Employee e where e.id in :ids")
+    List<Long> findExistingIdsForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * The version of an employee without loading the entity, a primary key lookup
+     */
+    @Query("select e.version from Employee e where e.id = :id")
+    Optional<Long> findVersionById(@Param("id") long id);
+
+    /**
+     * Change marker of the whole employees table, the sum of its revision slots; every write of the service
+     * increments one of them
+     */
+    @Query(value = "select coalesce(sum(revision), 0) from employees_revision", nativeQuery = true)
+    long findEmployeesRevision();
+
+    /**
+     * Increments one revision slot, numbered from 1, whose row stays locked until commit; writes that picked another
+     * slot are not held up by it, see {@code EmployeeServiceImpl.recordChanges}
+     *
+     * @return 1, or 0 if the slot does not exist
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "update employees_revision set revision = revision + 1 where id = :slot", nativeQuery = true)
+    int incrementEmployeesRevision(@Param("slot") int slot);
+
+    /**
+     * Id of the latest change in the outbox, 0 if it is empty; read off the end of the primary key
+     */
+    @Query(value = "select coalesce(max(id), 0) from employee_changes", nativeQuery = true)
+    long findLatestChangeId();
+
+    /**
+     * Id of the oldest change kept in the outbox, 0 if it is empty, which the retention keeping the latest change
+     * means no change was ever recorded
+     */
+    @Query(value = "select coalesce(min(id), 0) from employee_changes", nativeQuery = true)
+    long findOldestChangeId();
+
+    /**
+     * Deletes up to {@code limit} outbox rows older than the given number of seconds, by database time, and below
+     * {@code beforeId}. MySQL does not allow a subquery on employee_changes here, the caller reads the bound first.
+     *
+     * @return the number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "delete from employee_changes where changed_at < now(3) - interval :seconds second " +
+            "and id < :beforeId order by id limit :limit", nativeQuery = true)
+    int deleteChangesOlderThan(@Param("seconds") long seconds, @Param("beforeId") long beforeId,
+                               @Param("limit") int limit);
+
     /**
      * Spring Data JPA custom query using JPQL with index parameters
      */
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
     @Query("select e from Employee e where e.firstName = ?1 and e.lastName = ?2")
     Employee findByFirstNameAndLastName(String firstName, String lastName);
 
     /**
      * Spring Data JPA custom query using JPQL with named parameters
      */
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
     @Query("select e from Employee e where e.firstName =:firstName and e.email =:email")
     Employee findByFirstNameAndEmail(@Param("firstName") String firstName, @Param("email") String email);
 
     /**
      * Spring Data JPA custom query using native SQL with indexed parameters
      */
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
     @Query(value = "select * from employees e where e.last_name = ?1 and e.email = ?2", nativeQuery = true)
     Employee findByLastNameAndEmail(String lastName, String email);
 
     /**
      * Spring Data JPA custom query using native SQL with named parameters
      */
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
     @Query(value = "select * from employees e where e.first_name =:firstName " +
             "and e.last_name =:lastName and e.email =:email", nativeQuery = true)
     Employee findByFirstNameAndLastNameAndEmail(@Param("firstName") String firstName,
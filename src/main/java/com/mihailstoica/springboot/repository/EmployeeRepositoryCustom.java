@@ -0,0 +1,42 @@
+package com.mihailstoica.springboot.repository;
+
+import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.model.EmployeeChange;
+import com.mihailstoica.springboot.model.EmployeeChangedEvent;
+import com.mihailstoica.springboot.model.EmployeePatch;
+
+import java.util.List;
+
+public interface EmployeeRepositoryCustom {
+
+    /**
+     * Inserts the employee or, when the email is already taken, updates the names of the existing row,
+     * using a single native INSERT ... ON DUPLICATE KEY UPDATE statement.
+     * The id of a newly inserted row is written back to the given employee. The version of an existing row is
+     * always bumped, so it counts as updated even when the names were already the same.
+     *
+     * @return 1 if a row was inserted, 2 if an existing row was updated
+     */
+    int upsert(Employee employee);
+
+    /**
+     * Applies the non-null fields of the patch and bumps the version in a single
+     * UPDATE ... WHERE id = ? AND version = ? statement, without loading the employee first
+     *
+     * @return 1 if the row was updated, 0 if the id does not exist or the version did not match
+     */
+    int patch(long id, long version, EmployeePatch patch);
+
+    /**
+     * Records the changes in the employee_changes outbox with multi-row INSERT statements, to be called in the
+     * transaction making the changes and after {@code incrementEmployeesRevision} so ids follow commit order
+     *
+     * @return the number of inserted rows
+     */
+    int insertChanges(List<EmployeeChangedEvent> changes);
+
+    /**
+     * Up to {@code limit} outbox rows with an id greater than {@code afterId}, in id order, a primary key range scan
+     */
+    List<EmployeeChange> findChangesAfter(long afterId, int limit);
+}
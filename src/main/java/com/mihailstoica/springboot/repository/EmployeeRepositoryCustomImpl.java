@@ -0,0 +1,147 @@
+package com.mihailstoica.springboot.repository;
+
+import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.model.EmployeeChange;
+import com.mihailstoica.springboot.model.EmployeeChangedEvent;
+import com.mihailstoica.springboot.model.EmployeePatch;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.jpa.TypedParameterValue;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+public class EmployeeRepositoryCustomImpl implements EmployeeRepositoryCustom {
+
+    private static final String UPSERT_SQL = "insert into employees (id, version, first_name, last_name, email) " +
+            "values (:id, 0, :firstName, :lastName, :email) " +
+            "on duplicate key update version = version + 1, " +
+            "first_name = values(first_name), last_name = values(last_name)";
+
+    /**
+     * Rows per INSERT statement of {@link #insertChanges(List)}
+     */
+    static final int CHANGES_CHUNK_SIZE = 500;
+
+    private static final String INSERT_CHANGES_SQL = "insert into employee_changes " +
+            "(type, employee_id, first_name, last_name, email) values ";
+
+    private static final String FIND_CHANGES_SQL = "select id, type, employee_id, first_name, last_name, email, " +
+            "changed_at from employee_changes where id > :afterId order by id limit :limit";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int upsert(Employee employee) {
+
+        //draw the id from the entity's own generator so native inserts never collide with JPA ones
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        long id = (Long) session.getFactory().getMetamodel().entityPersister(Employee.class)
+                .getIdentifierGenerator().generate(session, employee);
+
+        int affectedRows = entityManager.createNativeQuery(UPSERT_SQL)
+                .setParameter("id", id)
+                .setParameter("firstName", employee.getFirstName())
+                .setParameter("lastName", employee.getLastName())
+                .setParameter("email", employee.getEmail())
+                .executeUpdate();
+        if (affectedRows == 1) {
+            employee.setId(id);
+        }
+
+        return affectedRows;
+    }
+
+    @Override
+    @Transactional
+    public int patch(long id, long version, EmployeePatch patch) {
+
+        //only the columns present in the patch are written
+        StringBuilder jpql = new StringBuilder("update Employee e set e.version = e.version + 1");
+        if (patch.getFirstName() != null) {
+            jpql.append(", e.firstName = :firstName");
+        }
+        if (patch.getLastName() != null) {
+            jpql.append(", e.lastName = :lastName");
+        }
+        if (patch.getEmail() != null) {
+            jpql.append(", e.email = :email");
+        }
+        jpql.append(" where e.id = :id and e.version = :version");
+
+        Query query = entityManager.createQuery(jpql.toString())
+                .setParameter("id", id)
+                .setParameter("version", version);
+        if (patch.getFirstName() != null) {
+            query.setParameter("firstName", patch.getFirstName());
+        }
+        if (patch.getLastName() != null) {
+            query.setParameter("lastName", patch.getLastName());
+        }
+        if (patch.getEmail() != null) {
+            query.setParameter("email", patch.getEmail());
+        }
+
+        return query.executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public int insertChanges(List<EmployeeChangedEvent> changes) {
+
+        int insertedRows = 0;
+        for (int from = 0; from < changes.size(); from += CHANGES_CHUNK_SIZE) {
+            List<EmployeeChangedEvent> chunk = changes.subList(from, Math.min(from + CHANGES_CHUNK_SIZE,
+                    changes.size()));
+
+            StringBuilder sql = new StringBuilder(INSERT_CHANGES_SQL);
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?)");
+            }
+            Query query = entityManager.createNativeQuery(sql.toString());
+            int position = 1;
+            for (EmployeeChangedEvent change : chunk) {
+                query.setParameter(position++, change.getType().name())
+                        .setParameter(position++, change.getId())
+                        .setParameter(position++, nullableString(change.getFirstName()))
+                        .setParameter(position++, nullableString(change.getLastName()))
+                        .setParameter(position++, nullableString(change.getEmail()));
+            }
+            insertedRows += query.executeUpdate();
+        }
+
+        return insertedRows;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<EmployeeChange> findChangesAfter(long afterId, int limit) {
+
+        List<Object[]> rows = entityManager.createNativeQuery(FIND_CHANGES_SQL)
+                .setParameter("afterId", afterId)
+                .setParameter("limit", limit)
+                .getResultList();
+
+        List<EmployeeChange> changes = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            changes.add(new EmployeeChange(((Number) row[0]).longValue(),
+                    EmployeeChangedEvent.Type.valueOf((String) row[1]), ((Number) row[2]).longValue(),
+                    (String) row[3], (String) row[4], (String) row[5], ((Timestamp) row[6]).toInstant()));
+        }
+        return changes;
+    }
+
+    /**
+     * Typed, so a null is bound as a string rather than a serializable
+     */
+    private static TypedParameterValue nullableString(String value) {
+        return new TypedParameterValue(StandardBasicTypes.STRING, value);
+    }
+}
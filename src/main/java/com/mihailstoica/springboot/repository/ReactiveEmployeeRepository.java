@@ -0,0 +1,66 @@
+package com.mihailstoica.springboot.repository;
+
+import com.mihailstoica.springboot.model.ReactiveEmployee;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveEmployeeRepository extends R2dbcRepository<ReactiveEmployee, Long> {
+
+    Mono<ReactiveEmployee> findByEmail(String email);
+
+    /**
+     * Whole table in id order, rows are fetched as the subscriber requests them
+     */
+    Flux<ReactiveEmployee> findAllByOrderByIdAsc();
+
+    /**
+     * Spring Data R2DBC custom query using SQL with named parameters
+     */
+    @Query("select * from employees e where e.first_name = :firstName and e.last_name = :lastName")
+    Mono<ReactiveEmployee> findByFirstNameAndLastName(@Param("firstName") String firstName,
+                                                      @Param("lastName") String lastName);
+
+    /**
+     * Spring Data R2DBC custom query using SQL with named parameters
+     */
+    @Query("select * from employees e where e.first_name = :firstName and e.email = :email")
+    Mono<ReactiveEmployee> findByFirstNameAndEmail(@Param("firstName") String firstName,
+                                                   @Param("email") String email);
+
+    /**
+     * Spring Data R2DBC custom query using SQL with named parameters
+     */
+    @Query("select * from employees e where e.last_name = :lastName and e.email = :email")
+    Mono<ReactiveEmployee> findByLastNameAndEmail(@Param("lastName") String lastName, @Param("email") String email);
+
+    /**
+     * Spring Data R2DBC custom query using SQL with named parameters
+     */
+    @Query("select * from employees e where e.first_name = :firstName " +
+            "and e.last_name = :lastName and e.email = :email")
+    Mono<ReactiveEmployee> findByFirstNameAndLastNameAndEmail(@Param("firstName") String firstName,
+                                                              @Param("lastName") String lastName,
+                                                              @Param("email") String email);
+
+    /**
+     * Reserves the next {@code increment} ids of employees_seq, the table the pooled generator of the JPA entity
+     * draws from; read the new value with {@link #findNextId()} in the same transaction
+     */
+    @Modifying
+    @Query("update employees_seq set next_val = next_val + :increment")
+    Mono<Integer> incrementNextId(@Param("increment") int increment);
+
+    @Query("select next_val from employees_seq")
+    Mono<Long> findNextId();
+
+    /**
+     * @return the number of deleted rows, 0 if the id does not exist
+     */
+    @Modifying
+    @Query("delete from employees where id = :id")
+    Mono<Integer> deleteEmployeeById(@Param("id") long id);
+}
@@ -0,0 +1,36 @@
+package com.mihailstoica.springboot.service;
+
+import com.mihailstoica.springboot.model.EmployeeChange;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Reads the employee_changes outbox written by {@link EmployeeService}, positions in it are change ids
+ */
+public interface EmployeeChangeService {
+
+    /**
+     * Up to {@code limit} committed changes with an id after the given position, oldest first. Ids are allocated on
+     * insert, a change committing later can still fill a gap below the last one returned.
+     */
+    List<EmployeeChange> getChangesAfter(long afterId, int limit);
+
+    /**
+     * The position of the latest change, 0 if there is none
+     */
+    long getLatestChangeId();
+
+    /**
+     * The position of the oldest change still kept, 0 if there is none. The latest change is never purged, so there
+     * is none only while no change has been recorded yet.
+     */
+    long getOldestChangeId();
+
+    /**
+     * Deletes the changes older than the retention, except the latest one
+     *
+     * @return the number of changes that were deleted
+     */
+    int purgeChanges(Duration retention);
+}
@@ -0,0 +1,23 @@
+package com.mihailstoica.springboot.service;
+
+import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.model.EmployeeIngestStatus;
+
+import java.util.Optional;
+
+/**
+ * Asynchronous creates: employees are durably queued and inserted later, in batches
+ */
+public interface EmployeeIngestService {
+
+    /**
+     * @return the {@link EmployeeIngestStatus.State#QUEUED} status, once the employee is on disk
+     * @throws com.mihailstoica.springboot.exception.WriteBehindFullException if the queue has no room left
+     */
+    EmployeeIngestStatus enqueue(Employee employee);
+
+    /**
+     * @return empty if no create was queued under the given sequence
+     */
+    Optional<EmployeeIngestStatus> getStatus(long sequence);
+}
@@ -0,0 +1,13 @@
+package com.mihailstoica.springboot.service;
+
+import com.mihailstoica.springboot.model.EmployeeSearchResult;
+
+public interface EmployeeSearchService {
+
+    /**
+     * Case-insensitive prefix and infix search over first name, last name, full name and email.
+     * Queries shorter than three characters only match prefixes. Hits are ranked exact, prefix, infix,
+     * then by last name, first name and id.
+     */
+    EmployeeSearchResult search(String query, int page, int size);
+}
@@ -1,19 +1,70 @@
 package com.mihailstoica.springboot.service;
 
 import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.model.EmployeeBatchResult;
+import com.mihailstoica.springboot.model.EmployeePage;
+import com.mihailstoica.springboot.model.EmployeePatch;
+import com.mihailstoica.springboot.model.RevisionedEmployees;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
 
 public interface EmployeeService {
 
     Employee saveEmployee(Employee employee);
 
+    Employee upsertEmployee(Employee employee);
+
+    List<EmployeeBatchResult> saveEmployees(List<Employee> employees);
+
     List<Employee> getAllEmployees();
 
+    /**
+     * The employees revision and, unless {@code unchanged} accepts it, all employees, read in one transaction so
+     * both come from the same database and snapshot
+     */
+    RevisionedEmployees<List<Employee>> getAllEmployees(LongPredicate unchanged);
+
+    EmployeePage getEmployeePage(long afterId, int limit);
+
+    /**
+     * The employees revision and, unless {@code unchanged} accepts it, a page of employees, see
+     * {@link #getAllEmployees(LongPredicate)}
+     */
+    RevisionedEmployees<EmployeePage> getEmployeePage(long afterId, int limit, LongPredicate unchanged);
+
+    void exportEmployees(Consumer<Employee> consumer);
+
     Optional<Employee> getEmployeeById(long id);
 
+    /**
+     * The version of an employee, cheaper than {@link #getEmployeeById(long)} when only that is needed
+     */
+    Optional<Long> getEmployeeVersion(long id);
+
     Employee updateEmployee(Employee updatedEmployee);
 
-    void deleteEmployee(long id);
+    /**
+     * @return false if no employee exists with the given id
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the patch version is stale
+     */
+    boolean patchEmployee(long id, EmployeePatch patch);
+
+    /**
+     * @return false if no employee exists with the given id
+     */
+    boolean deleteEmployee(long id);
+
+    /**
+     * @return false if no employee exists with the given id and version
+     */
+    boolean deleteEmployee(long id, long version);
+
+    /**
+     * @return the number of employees that were deleted
+     */
+    int deleteEmployees(Collection<Long> ids);
 }
@@ -0,0 +1,21 @@
+package com.mihailstoica.springboot.service;
+
+import com.mihailstoica.springboot.model.ReactiveEmployee;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveEmployeeService {
+
+    Mono<ReactiveEmployee> saveEmployee(ReactiveEmployee employee);
+
+    Flux<ReactiveEmployee> getAllEmployees();
+
+    Mono<ReactiveEmployee> getEmployeeById(long id);
+
+    Mono<ReactiveEmployee> updateEmployee(ReactiveEmployee updatedEmployee);
+
+    /**
+     * @return false if no employee exists with the given id
+     */
+    Mono<Boolean> deleteEmployee(long id);
+}
@@ -0,0 +1,291 @@
+package com.mihailstoica.springboot.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mihailstoica.springboot.config.EmployeeCacheProperties;
+import com.mihailstoica.springboot.config.ReplicaRoutingDataSource;
+import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.model.EmployeeBatchResult;
+import com.mihailstoica.springboot.model.EmployeePage;
+import com.mihailstoica.springboot.model.EmployeePatch;
+import com.mihailstoica.springboot.model.RevisionedEmployees;
+import com.mihailstoica.springboot.service.EmployeeService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Read-through cache in front of {@link EmployeeServiceImpl}. Found employees and, for a shorter time,
+ * unknown ids are cached; writes evict the affected id once their transaction has committed.
+ * Entries are copied in and out because {@link Employee} is mutable.
+ * <p>
+ * Concurrent misses on the same id are coalesced: the first caller loads the employee, the others wait a bounded
+ * time for its result, or its exception, instead of each running the same query. An eviction drops the in-flight
+ * load along with the entry, a load that started before a write is neither cached nor joined by later callers.
+ * <p>
+ * Misses are loaded from the primary, never from a replica that may lag behind a write already evicted for.
+ */
+@Service
+@Profile("!reactive")
+@Primary
+public class CachingEmployeeService implements EmployeeService {
+
+    private final EmployeeService employeeService;
+
+    private final Cache<Long, Employee> employees;
+
+    private final Cache<Long, Boolean> missingEmployees;
+
+    /**
+     * Loads in progress by id, a ConcurrentHashMap only locks the bin of the id being added or removed
+     */
+    private final ConcurrentMap<Long, CompletableFuture<Optional<Employee>>> loads = new ConcurrentHashMap<>();
+
+    private final Duration coalescingTimeout;
+
+    private final Counter coalescedLookups;
+
+    public CachingEmployeeService(EmployeeServiceImpl employeeService, EmployeeCacheProperties properties,
+                                  MeterRegistry meterRegistry) {
+
+        this.employeeService = employeeService;
+        this.coalescingTimeout = properties.getCoalescingTimeout();
+        this.employees = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build();
+        this.missingEmployees = Caffeine.newBuilder()
+                .maximumSize(properties.getNegativeMaximumSize())
+                .expireAfterWrite(properties.getNegativeTimeToLive())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, employees, "employees");
+        CaffeineCacheMetrics.monitor(meterRegistry, missingEmployees, "employees.missing");
+        this.coalescedLookups = Counter.builder("cache.coalesced")
+                .description("Cache misses served by a concurrent load of the same key")
+                .tag("cache", "employees")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Employee saveEmployee(Employee employee) {
+
+        Employee savedEmployee = employeeService.saveEmployee(employee);
+        evictAfterCommit(savedEmployee.getId());
+        return savedEmployee;
+    }
+
+    @Override
+    public Employee upsertEmployee(Employee employee) {
+
+        Employee savedEmployee = employeeService.upsertEmployee(employee);
+        evictAfterCommit(savedEmployee.getId());
+        return savedEmployee;
+    }
+
+    @Override
+    public List<EmployeeBatchResult> saveEmployees(List<Employee> employees) {
+
+        List<EmployeeBatchResult> results = employeeService.saveEmployees(employees);
+        results.stream()
+                .filter(result -> result.getId() != null)
+                .forEach(result -> evictAfterCommit(result.getId()));
+        return results;
+    }
+
+    @Override
+    public List<Employee> getAllEmployees() {
+
+        return employeeService.getAllEmployees();
+    }
+
+    @Override
+    public RevisionedEmployees<List<Employee>> getAllEmployees(LongPredicate unchanged) {
+
+        return employeeService.getAllEmployees(unchanged);
+    }
+
+    @Override
+    public EmployeePage getEmployeePage(long afterId, int limit) {
+
+        return employeeService.getEmployeePage(afterId, limit);
+    }
+
+    @Override
+    public RevisionedEmployees<EmployeePage> getEmployeePage(long afterId, int limit, LongPredicate unchanged) {
+
+        return employeeService.getEmployeePage(afterId, limit, unchanged);
+    }
+
+    @Override
+    public void exportEmployees(Consumer<Employee> consumer) {
+
+        employeeService.exportEmployees(consumer);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeById(long id) {
+
+        Employee cachedEmployee = employees.getIfPresent(id);
+        if (cachedEmployee != null) {
+            return Optional.of(copy(cachedEmployee));
+        }
+        if (missingEmployees.getIfPresent(id) != null) {
+            return Optional.empty();
+        }
+
+        CompletableFuture<Optional<Employee>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<Employee>> concurrentLoad = loads.putIfAbsent(id, load);
+        if (concurrentLoad != null) {
+            return await(id, concurrentLoad);
+        }
+
+        Optional<Employee> employee;
+        try {
+            //a replica may not have the write whose eviction already ran, its row would be cached for the time to live
+            employee = ReplicaRoutingDataSource.onPrimary(() -> employeeService.getEmployeeById(id));
+        } catch (Throwable e) {
+            //an Error too, or the waiting callers would hang on the load until their timeout and later ones join it
+            load.completeExceptionally(e);
+            loads.remove(id, load);
+            throw e;
+        }
+        //the caller may change the employee it gets, the waiting callers copy an untouched one
+        Optional<Employee> loadedEmployee = employee.map(CachingEmployeeService::copy);
+        load.complete(loadedEmployee);
+
+        if (loadedEmployee.isPresent()) {
+            employees.put(id, loadedEmployee.get());
+        } else {
+            missingEmployees.put(id, Boolean.TRUE);
+        }
+        //evicted while loading, the result may predate the write
+        if (!loads.remove(id, load)) {
+            employees.invalidate(id);
+            missingEmployees.invalidate(id);
+        }
+        return employee;
+    }
+
+    private Optional<Employee> await(long id, CompletableFuture<Optional<Employee>> load) {
+
+        try {
+            Optional<Employee> employee = load.get(coalescingTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            coalescedLookups.increment();
+            return employee.map(CachingEmployeeService::copy);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            //the load is stuck, don't let it hold every caller of this id
+            return employeeService.getEmployeeById(id);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for employee " + id, e);
+        }
+    }
+
+    @Override
+    public Optional<Long> getEmployeeVersion(long id) {
+
+        Employee cachedEmployee = employees.getIfPresent(id);
+        if (cachedEmployee != null) {
+            return Optional.of(cachedEmployee.getVersion());
+        }
+        if (missingEmployees.getIfPresent(id) != null) {
+            return Optional.empty();
+        }
+        return employeeService.getEmployeeVersion(id);
+    }
+
+    @Override
+    public Employee updateEmployee(Employee updatedEmployee) {
+
+        Employee employee = employeeService.updateEmployee(updatedEmployee);
+        evictAfterCommit(employee.getId());
+        return employee;
+    }
+
+    @Override
+    public boolean patchEmployee(long id, EmployeePatch patch) {
+
+        boolean patched = employeeService.patchEmployee(id, patch);
+        evictAfterCommit(id);
+        return patched;
+    }
+
+    @Override
+    public boolean deleteEmployee(long id) {
+
+        boolean deleted = employeeService.deleteEmployee(id);
+        evictAfterCommit(id);
+        return deleted;
+    }
+
+    @Override
+    public boolean deleteEmployee(long id, long version) {
+
+        boolean deleted = employeeService.deleteEmployee(id, version);
+        evictAfterCommit(id);
+        return deleted;
+    }
+
+    @Override
+    public int deleteEmployees(Collection<Long> ids) {
+
+        int deletedRows = employeeService.deleteEmployees(ids);
+        ids.forEach(this::evictAfterCommit);
+        return deletedRows;
+    }
+
+    private void evictAfterCommit(long id) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(id);
+            }
+        });
+    }
+
+    private void evict(long id) {
+
+        //the load first, so one finishing in between sees it is gone and drops what it cached
+        loads.remove(id);
+        employees.invalidate(id);
+        missingEmployees.invalidate(id);
+    }
+
+    private static Employee copy(Employee employee) {
+
+        return employee.toBuilder().build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.mihailstoica.springboot.service.impl;
+
+import com.mihailstoica.springboot.model.EmployeeChange;
+import com.mihailstoica.springboot.repository.EmployeeRepository;
+import com.mihailstoica.springboot.service.EmployeeChangeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+
+@Service
+@Profile("!reactive")
+public class EmployeeChangeServiceImpl implements EmployeeChangeService {
+
+    /**
+     * Rows per DELETE statement of {@link #purgeChanges(Duration)}, each in its own short transaction
+     */
+    public static final int PURGE_CHUNK_SIZE = 1000;
+
+    private final EmployeeRepository employeeRepository;
+
+    public EmployeeChangeServiceImpl(EmployeeRepository employeeRepository) {
+        this.employeeRepository = employeeRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeChange> getChangesAfter(long afterId, int limit) {
+
+        //replicas apply commits in order, so reading the outbox from one never skips a change
+        return employeeRepository.findChangesAfter(afterId, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getLatestChangeId() {
+
+        return employeeRepository.findLatestChangeId();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getOldestChangeId() {
+
+        return employeeRepository.findOldestChangeId();
+    }
+
+    @Override
+    public int purgeChanges(Duration retention) {
+
+        //the latest change is kept whatever its age, it marks the highest position ever handed out: a client
+        //resuming from below it after everything else was purged is told to reset instead of missing changes
+        long latestChangeId = employeeRepository.findLatestChangeId();
+        int deletedRows = 0;
+        int deletedChunkRows;
+        do {
+            deletedChunkRows = employeeRepository.deleteChangesOlderThan(retention.toSeconds(), latestChangeId,
+                    PURGE_CHUNK_SIZE);
+            deletedRows += deletedChunkRows;
+        } while (deletedChunkRows == PURGE_CHUNK_SIZE);
+        return deletedRows;
+    }
+}
@@ -0,0 +1,383 @@
+package com.mihailstoica.springboot.service.impl;
+
+import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.model.EmployeeChangedEvent;
+import com.mihailstoica.springboot.model.EmployeeSearchHit;
+import com.mihailstoica.springboot.model.EmployeeSearchResult;
+import com.mihailstoica.springboot.service.EmployeeSearchService;
+import com.mihailstoica.springboot.service.EmployeeService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory n-gram index behind {@code GET /api/employees/search}.
+ * <p>
+ * Every indexed employee gets an ordinal, and every trigram of its lower-cased first name, last name, full name and
+ * email maps to the ascending ordinals containing it; the first one and two characters of each field are indexed
+ * as prefix grams for short queries. A query intersects the posting lists of its grams, rarest first, and only the
+ * surviving candidates are compared against the query.
+ * <p>
+ * The index is loaded from {@link EmployeeService#exportEmployees} once the application is ready and then follows
+ * the {@link EmployeeChangedEvent}s of committed writes. Events arriving while it loads are replayed afterwards.
+ * An update re-indexes the employee under a new ordinal and leaves the old one as a tombstone, the index is
+ * rebuilt once tombstones outnumber live employees.
+ */
+@Service
+@Profile("!reactive")
+public class EmployeeSearchIndex implements EmployeeSearchService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final int GRAM_LENGTH = 3;
+
+    private static final char PREFIX_MARK = '^';
+
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 1024;
+
+    private static final Comparator<Candidate> RANKING = Comparator
+            .comparing((Candidate candidate) -> candidate.match)
+            .thenComparing(candidate -> candidate.document.lastName,
+                    Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(candidate -> candidate.document.firstName,
+                    Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparingLong(candidate -> candidate.document.id);
+
+    private final EmployeeService employeeService;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    private Document[] documents = new Document[1024];
+
+    private int nextOrdinal;
+
+    private int tombstones;
+
+    /**
+     * Changes received before the initial load completed, {@code null} afterwards
+     */
+    private List<EmployeeChangedEvent> pendingEvents = new ArrayList<>();
+
+    public EmployeeSearchIndex(EmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+
+        employeeService.exportEmployees(this::put);
+
+        lock.writeLock().lock();
+        try {
+            pendingEvents.forEach(this::apply);
+            pendingEvents = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+
+        lock.writeLock().lock();
+        try {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            } else {
+                apply(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Employee employee) {
+
+        Document document = new Document(employee.getId(), employee.getFirstName(), employee.getLastName(),
+                employee.getEmail());
+        lock.writeLock().lock();
+        try {
+            remove(document.id);
+            index(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public EmployeeSearchResult search(String query, int page, int size) {
+
+        String normalizedQuery = query == null ? "" : normalize(query.trim());
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        //a long, a large page would overflow an int offset
+        long offset = (long) Math.max(0, page) * pageSize;
+        if (normalizedQuery.isEmpty()) {
+            return new EmployeeSearchResult(List.of(), 0);
+        }
+
+        //keep only the best offset + pageSize candidates, the worst on top of the heap
+        PriorityQueue<Candidate> best = new PriorityQueue<>(RANKING.reversed());
+        int total = 0;
+        lock.readLock().lock();
+        try {
+            int[] candidates = candidates(normalizedQuery);
+            //past the last candidate the page is empty, the matches are only counted
+            int keep = (int) Math.min(offset + pageSize, offset >= candidates.length ? 0 : candidates.length);
+            for (int ordinal : candidates) {
+                Document document = documents[ordinal];
+                EmployeeSearchHit.Match match = document == null ? null : document.match(normalizedQuery);
+                if (match == null) {
+                    continue;
+                }
+                total++;
+                best.add(new Candidate(document, match));
+                if (best.size() > keep) {
+                    best.poll();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Candidate> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+        List<EmployeeSearchHit> hits = new ArrayList<>(pageSize);
+        for (int i = (int) Math.min(offset, ranked.size()); i < ranked.size(); i++) {
+            Document document = ranked.get(i).document;
+            hits.add(new EmployeeSearchHit(document.id, document.firstName, document.lastName, document.email,
+                    ranked.get(i).match));
+        }
+        return new EmployeeSearchResult(hits, total);
+    }
+
+    private void apply(EmployeeChangedEvent event) {
+
+        switch (event.getType()) {
+            case SAVED:
+                remove(event.getId());
+                index(new Document(event.getId(), event.getFirstName(), event.getLastName(), event.getEmail()));
+                break;
+            case PATCHED:
+                Integer ordinal = ordinals.get(event.getId());
+                if (ordinal != null) {
+                    Document current = documents[ordinal];
+                    remove(event.getId());
+                    index(new Document(current.id,
+                            event.getFirstName() != null ? event.getFirstName() : current.firstName,
+                            event.getLastName() != null ? event.getLastName() : current.lastName,
+                            event.getEmail() != null ? event.getEmail() : current.email));
+                }
+                break;
+            case DELETED:
+                remove(event.getId());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown change: " + event.getType());
+        }
+    }
+
+    private void index(Document document) {
+
+        int ordinal = nextOrdinal++;
+        if (ordinal == documents.length) {
+            documents = Arrays.copyOf(documents, documents.length * 2);
+        }
+        documents[ordinal] = document;
+        ordinals.put(document.id, ordinal);
+        for (String gram : document.grams()) {
+            postings.computeIfAbsent(gram, key -> new Postings()).add(ordinal);
+        }
+    }
+
+    private void remove(long id) {
+
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        documents[ordinal] = null;
+        tombstones++;
+        if (tombstones >= MIN_TOMBSTONES_TO_COMPACT && tombstones > ordinals.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Re-indexes the live employees under dense ordinals, in their current order so posting lists stay sorted
+     */
+    private void compact() {
+
+        Document[] liveDocuments = Arrays.stream(documents, 0, nextOrdinal)
+                .filter(document -> document != null)
+                .toArray(Document[]::new);
+        ordinals.clear();
+        postings.clear();
+        documents = new Document[Math.max(1024, Integer.highestOneBit(liveDocuments.length) * 2)];
+        nextOrdinal = 0;
+        tombstones = 0;
+        for (Document document : liveDocuments) {
+            index(document);
+        }
+    }
+
+    /**
+     * Ordinals having all grams of the query, possibly tombstones or false positives where the grams come from
+     * different fields or positions
+     */
+    private int[] candidates(String query) {
+
+        Set<String> grams = new LinkedHashSet<>();
+        if (query.length() < GRAM_LENGTH) {
+            grams.add(PREFIX_MARK + query);
+        } else {
+            for (int i = 0; i + GRAM_LENGTH <= query.length(); i++) {
+                grams.add(query.substring(i, i + GRAM_LENGTH));
+            }
+        }
+
+        List<Postings> lists = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+
+        int[] candidates = Arrays.copyOf(lists.get(0).ordinals, lists.get(0).size);
+        int size = candidates.length;
+        for (int i = 1; i < lists.size() && size > 0; i++) {
+            size = intersect(candidates, size, lists.get(i));
+        }
+        return size == candidates.length ? candidates : Arrays.copyOf(candidates, size);
+    }
+
+    /**
+     * Keeps the first {@code size} candidates that are also in {@code list}, both being sorted
+     *
+     * @return the number of candidates kept
+     */
+    private static int intersect(int[] candidates, int size, Postings list) {
+
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < size && from < list.size; i++) {
+            int position = Arrays.binarySearch(list.ordinals, from, list.size, candidates[i]);
+            if (position >= 0) {
+                candidates[kept++] = candidates[i];
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+        }
+        return kept;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Document {
+
+        private final long id;
+
+        private final String firstName;
+
+        private final String lastName;
+
+        private final String email;
+
+        /**
+         * Lower-cased first name, last name, full name and email
+         */
+        private final String[] keys;
+
+        private Document(long id, String firstName, String lastName, String email) {
+            this.id = id;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.email = email;
+            this.keys = new String[]{normalize(firstName), normalize(lastName),
+                    normalize(firstName) + " " + normalize(lastName), normalize(email)};
+        }
+
+        Set<String> grams() {
+
+            Set<String> grams = new LinkedHashSet<>();
+            for (String key : keys) {
+                for (int length = 1; length < GRAM_LENGTH && length <= key.length(); length++) {
+                    grams.add(PREFIX_MARK + key.substring(0, length));
+                }
+                for (int i = 0; i + GRAM_LENGTH <= key.length(); i++) {
+                    grams.add(key.substring(i, i + GRAM_LENGTH));
+                }
+            }
+            return grams;
+        }
+
+        EmployeeSearchHit.Match match(String query) {
+
+            EmployeeSearchHit.Match best = null;
+            for (String key : keys) {
+                if (key.equals(query)) {
+                    return EmployeeSearchHit.Match.EXACT;
+                }
+                if (key.startsWith(query)) {
+                    best = EmployeeSearchHit.Match.PREFIX;
+                } else if (best == null && query.length() >= GRAM_LENGTH && key.contains(query)) {
+                    best = EmployeeSearchHit.Match.INFIX;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Growable, ascending list of ordinals
+     */
+    private static final class Postings {
+
+        private int[] ordinals = new int[4];
+
+        private int size;
+
+        void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+    }
+
+    private static final class Candidate {
+
+        private final Document document;
+
+        private final EmployeeSearchHit.Match match;
+
+        private Candidate(Document document, EmployeeSearchHit.Match match) {
+            this.document = document;
+            this.match = match;
+        }
+    }
+}
@@ -2,54 +2,332 @@ package com.mihailstoica.springboot.service.impl;
 
 import com.mihailstoica.springboot.exception.ResourceNotFoundException;
 import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.model.EmployeeBatchResult;
+import com.mihailstoica.springboot.model.EmployeeChangedEvent;
+import com.mihailstoica.springboot.model.EmployeePage;
+import com.mihailstoica.springboot.model.EmployeePatch;
+import com.mihailstoica.springboot.model.RevisionedEmployees;
 import com.mihailstoica.springboot.repository.EmployeeRepository;
 import com.mihailstoica.springboot.service.EmployeeService;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
 
 @Service
+@Profile("!reactive")
 public class EmployeeServiceImpl implements EmployeeService {
 
+    public static final int MAX_PAGE_LIMIT = 1000;
+
+    /**
+     * Rows flushed per chunk by {@link #saveEmployees(List)}, keep in line with hibernate.jdbc.batch_size
+     */
+    public static final int BATCH_SIZE = 50;
+
+    /**
+     * Ids per DELETE ... IN statement of {@link #deleteEmployees(Collection)}
+     */
+    public static final int DELETE_CHUNK_SIZE = 1000;
+
     private final EmployeeRepository employeeRepository;
 
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    private final EntityManager entityManager;
+
+    /**
+     * Announces every committed change as an {@link EmployeeChangedEvent}, e.g. to keep the search index current.
+     * The same changes are written to the employee_changes outbox in the transaction making them.
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, EntityManager entityManager,
+                               ApplicationEventPublisher eventPublisher) {
         this.employeeRepository = employeeRepository;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @Transactional
     public Employee saveEmployee(Employee employee) {
 
-        Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
-        if (savedEmployee.isPresent()) {
-            throw new ResourceNotFoundException("Employee already exist with given email: " + employee.getEmail());
+        //a single INSERT, the unique index on email rejects duplicates even under concurrent creates
+        Employee savedEmployee;
+        try {
+            savedEmployee = employeeRepository.saveAndFlush(employee);
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateEmail(e)) {
+                throw new ResourceNotFoundException("Employee already exist with given email: " + employee.getEmail(),
+                        e);
+            }
+            throw e;
         }
+        recordChange(EmployeeChangedEvent.saved(savedEmployee));
+        return savedEmployee;
+    }
+
+    @Override
+    @Transactional
+    public Employee upsertEmployee(Employee employee) {
 
-        return employeeRepository.save(employee);
+        Employee upsertedEmployee = employee;
+        if (employeeRepository.upsert(employee) != 1) {
+            //the row already existed, read it back to return its id
+            upsertedEmployee = employeeRepository.findByEmail(employee.getEmail())
+                    .orElseThrow(() -> new ResourceNotFoundException("Employee not exist with given email: "
+                            + employee.getEmail()));
+        }
+        recordChange(EmployeeChangedEvent.saved(upsertedEmployee));
+        return upsertedEmployee;
     }
 
     @Override
+    @Transactional
+    public List<EmployeeBatchResult> saveEmployees(List<Employee> employees) {
+
+        Set<String> emails = new HashSet<>();
+        employees.stream().map(Employee::getEmail).filter(Objects::nonNull).forEach(emails::add);
+        Set<String> takenEmails = emails.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(employeeRepository.findExistingEmails(emails));
+
+        List<EmployeeBatchResult> results = new ArrayList<>(employees.size());
+        List<EmployeeChangedEvent> changes = new ArrayList<>();
+        List<Employee> chunk = new ArrayList<>(BATCH_SIZE);
+        for (int index = 0; index < employees.size(); index++) {
+            Employee employee = employees.get(index);
+            if (employee.getFirstName() == null || employee.getLastName() == null || employee.getEmail() == null) {
+                results.add(new EmployeeBatchResult(index, EmployeeBatchResult.Status.INVALID, null,
+                        employee.getEmail()));
+                continue;
+            }
+            //also rejects the second occurrence of an email repeated inside the batch
+            if (!takenEmails.add(employee.getEmail())) {
+                results.add(new EmployeeBatchResult(index, EmployeeBatchResult.Status.DUPLICATE, null,
+                        employee.getEmail()));
+                continue;
+            }
+
+            employee.setId(0L);
+            employee.setVersion(0L);
+            //ids come from the pooled sequence on persist, so they are known before the batch is flushed
+            Employee savedEmployee = employeeRepository.save(employee);
+            results.add(new EmployeeBatchResult(index, EmployeeBatchResult.Status.CREATED, savedEmployee.getId(),
+                    savedEmployee.getEmail()));
+            changes.add(EmployeeChangedEvent.saved(savedEmployee));
+            chunk.add(savedEmployee);
+            if (chunk.size() == BATCH_SIZE) {
+                flushAndClear(chunk);
+            }
+        }
+        flushAndClear(chunk);
+        recordChanges(changes);
+
+        return results;
+    }
+
+    private void recordChange(EmployeeChangedEvent change) {
+        recordChanges(List.of(change));
+    }
+
+    /**
+     * Publishes the changes, bumps the employees revision and writes the changes to the outbox. The revision is
+     * bumped in a slot picked at random, two writes only wait for each other when they pick the same one; the
+     * outbox does not rely on it for its order, see {@code EmployeeChangeStream}. Called last so the slot is locked
+     * as briefly as possible.
+     */
+    private void recordChanges(List<EmployeeChangedEvent> changes) {
+
+        if (changes.isEmpty()) {
+            return;
+        }
+        changes.forEach(eventPublisher::publishEvent);
+        employeeRepository.incrementEmployeesRevision(
+                ThreadLocalRandom.current().nextInt(EmployeeRepository.REVISION_SLOTS) + 1);
+        employeeRepository.insertChanges(changes);
+    }
+
+    private static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                String constraintName = ((ConstraintViolationException) cause).getConstraintName();
+                return constraintName != null
+                        && constraintName.toLowerCase().contains(Employee.EMAIL_UNIQUE_CONSTRAINT);
+            }
+        }
+        return false;
+    }
+
+    private void flushAndClear(List<Employee> chunk) {
+
+        if (chunk.isEmpty()) {
+            return;
+        }
+        employeeRepository.flush();
+        entityManager.clear();
+        chunk.clear();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<Employee> getAllEmployees() {
 
         return employeeRepository.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public RevisionedEmployees<List<Employee>> getAllEmployees(LongPredicate unchanged) {
+
+        //read first, the employees that follow are at least as new
+        long revision = employeeRepository.findEmployeesRevision();
+        return new RevisionedEmployees<>(revision, unchanged.test(revision) ? null : getAllEmployees());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeePage getEmployeePage(long afterId, int limit) {
+
+        int pageLimit = Math.max(1, Math.min(limit, MAX_PAGE_LIMIT));
+        //fetch one extra row to know whether another page exists without issuing a COUNT query
+        List<Employee> employees = employeeRepository.findByIdGreaterThanOrderByIdAsc(afterId,
+                PageRequest.of(0, pageLimit + 1));
+        if (employees.size() <= pageLimit) {
+            return new EmployeePage(employees, null);
+        }
+
+        List<Employee> page = employees.subList(0, pageLimit);
+        return new EmployeePage(page, EmployeePage.encodeCursor(page.get(pageLimit - 1).getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public RevisionedEmployees<EmployeePage> getEmployeePage(long afterId, int limit, LongPredicate unchanged) {
+
+        long revision = employeeRepository.findEmployeesRevision();
+        return new RevisionedEmployees<>(revision, unchanged.test(revision) ? null : getEmployeePage(afterId, limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportEmployees(Consumer<Employee> consumer) {
+
+        try (Stream<Employee> employees = employeeRepository.streamAllByOrderByIdAsc()) {
+            employees.forEach(employee -> {
+                //detach every row so the persistence context does not grow with the table
+                entityManager.detach(employee);
+                consumer.accept(employee);
+            });
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<Employee> getEmployeeById(long id) {
 
         return employeeRepository.findById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> getEmployeeVersion(long id) {
+
+        return employeeRepository.findVersionById(id);
+    }
+
+    @Override
+    @Transactional
     public Employee updateEmployee(Employee updatedEmployee) {
 
-        return employeeRepository.save(updatedEmployee);
+        Employee savedEmployee = employeeRepository.save(updatedEmployee);
+        recordChange(EmployeeChangedEvent.saved(savedEmployee));
+        return savedEmployee;
+    }
+
+    @Override
+    @Transactional
+    public boolean patchEmployee(long id, EmployeePatch patch) {
+
+        int updatedRows;
+        try {
+            updatedRows = employeeRepository.patch(id, patch.getVersion(), patch);
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateEmail(e)) {
+                throw new ResourceNotFoundException("Employee already exist with given email: " + patch.getEmail(), e);
+            }
+            throw e;
+        }
+        if (updatedRows == 1) {
+            recordChange(EmployeeChangedEvent.patched(id, patch));
+            return true;
+        }
+
+        //only the failure path pays for a second statement, to tell a missing row from a stale version
+        if (!employeeRepository.existsById(id)) {
+            return false;
+        }
+        throw new ObjectOptimisticLockingFailureException(Employee.class, id);
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteEmployee(long id) {
+
+        if (employeeRepository.deleteEmployeeById(id) == 0) {
+            return false;
+        }
+        recordChange(EmployeeChangedEvent.deleted(id));
+        return true;
     }
 
     @Override
-    public void deleteEmployee(long id) {
+    @Transactional
+    public boolean deleteEmployee(long id, long version) {
 
-        employeeRepository.deleteById(id);
+        if (employeeRepository.deleteEmployeeByIdAndVersion(id, version) == 0) {
+            return false;
+        }
+        recordChange(EmployeeChangedEvent.deleted(id));
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public int deleteEmployees(Collection<Long> ids) {
+
+        List<Long> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<EmployeeChangedEvent> changes = new ArrayList<>();
+        int deletedRows = 0;
+        for (int from = 0; from < uniqueIds.size(); from += DELETE_CHUNK_SIZE) {
+            List<Long> chunk = uniqueIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, uniqueIds.size()));
+            //locked, so exactly these are deleted and a concurrent delete of the same ids records nothing
+            List<Long> existingIds = employeeRepository.findExistingIdsForUpdate(chunk);
+            if (existingIds.isEmpty()) {
+                continue;
+            }
+            deletedRows += employeeRepository.deleteEmployeesByIdIn(existingIds);
+            existingIds.forEach(id -> changes.add(EmployeeChangedEvent.deleted(id)));
+        }
+        recordChanges(changes);
+        return deletedRows;
     }
 }
@@ -0,0 +1,391 @@
+package com.mihailstoica.springboot.service.impl;
+
+import com.mihailstoica.springboot.exception.WriteBehindFullException;
+import lombok.Value;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of opaque records in fixed-size, memory-mapped segment files, with a checkpoint file recording how
+ * far it has been consumed.
+ * <p>
+ * A record is its payload length, a CRC32 of everything after it, a sequence number, the append time and the
+ * payload. Appends only write to the mapped segment; {@link #awaitDurable(long)} forces it to disk, one caller doing
+ * it for everyone waiting at the time (group commit). On opening, the log is scanned from the checkpoint and ends at
+ * the first record that is missing, torn or out of sequence.
+ * <p>
+ * One thread consumes the log with {@link #read(Position, int)} and {@link #checkpoint(Position, long)}, fully
+ * consumed segments are then deleted.
+ */
+public class EmployeeWriteLog implements Closeable {
+
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8;
+
+    private static final String SEGMENT_PREFIX = "employees-";
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final int maxSegments;
+
+    private final long groupCommitDelayNanos;
+
+    private final Object flushLock = new Object();
+
+    private final NavigableMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+
+    private long writeSegment;
+
+    private int writeOffset;
+
+    private volatile long lastSequence;
+
+    private volatile long durableSequence;
+
+    private volatile Position checkpoint;
+
+    private volatile long checkpointSequence;
+
+    public EmployeeWriteLog(Path directory, int segmentSize, int maxSegments, Duration groupCommitDelay)
+            throws IOException {
+
+        if (segmentSize <= HEADER_SIZE || maxSegments < 1) {
+            throw new IllegalArgumentException("Segments must hold at least one record");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.groupCommitDelayNanos = groupCommitDelay.toNanos();
+        Files.createDirectories(directory);
+        readCheckpoint();
+        recover();
+    }
+
+    /**
+     * Writes the record to the current segment, moving to a new one if it does not fit. The record is only
+     * guaranteed to survive a crash once {@link #awaitDurable(long)} has returned for it.
+     *
+     * @return the sequence number of the record
+     * @throws WriteBehindFullException if all segments are taken
+     */
+    public synchronized long append(byte[] payload) {
+
+        int size = HEADER_SIZE + payload.length;
+        if (size > segmentSize) {
+            throw new IllegalArgumentException("Record of " + size + " bytes exceeds the segment size");
+        }
+        if (writeOffset + size > segmentSize) {
+            roll();
+        }
+
+        MappedByteBuffer segment = segments.get(writeSegment);
+        long sequence = lastSequence + 1;
+        segment.putLong(writeOffset + 8, sequence);
+        segment.putLong(writeOffset + 16, System.currentTimeMillis());
+        segment.put(writeOffset + HEADER_SIZE, payload);
+        segment.putInt(writeOffset + 4, crc(segment, writeOffset, payload.length));
+        //the length goes last, a record is not there until it is set
+        segment.putInt(writeOffset, payload.length);
+
+        writeOffset += size;
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    /**
+     * Returns once the record with the given sequence, and all before it, are on disk
+     */
+    public void awaitDurable(long sequence) {
+
+        if (durableSequence >= sequence) {
+            return;
+        }
+        synchronized (flushLock) {
+            //forced by the previous holder of the lock
+            if (durableSequence >= sequence) {
+                return;
+            }
+            //let concurrent appends in, they are forced along with this one
+            if (groupCommitDelayNanos > 0) {
+                LockSupport.parkNanos(groupCommitDelayNanos);
+            }
+            long target;
+            MappedByteBuffer segment;
+            synchronized (this) {
+                target = lastSequence;
+                segment = segments.get(writeSegment);
+            }
+            //earlier segments were forced when the log moved past them
+            segment.force();
+            durableSequence = target;
+        }
+    }
+
+    /**
+     * Up to {@code max} durable records from the given position on
+     */
+    public synchronized List<Entry> read(Position from, int max) {
+
+        List<Entry> entries = new ArrayList<>();
+        Map.Entry<Long, MappedByteBuffer> first = segments.ceilingEntry(from.getSegment());
+        if (first == null) {
+            return entries;
+        }
+        long segmentId = first.getKey();
+        int offset = segmentId == from.getSegment() ? from.getOffset() : 0;
+        while (entries.size() < max) {
+            if (segmentId == writeSegment && offset >= writeOffset) {
+                break;
+            }
+            MappedByteBuffer segment = segments.get(segmentId);
+            if (offset + HEADER_SIZE > segmentSize || segment.getInt(offset) == 0) {
+                Long next = segments.higherKey(segmentId);
+                if (next == null) {
+                    break;
+                }
+                segmentId = next;
+                offset = 0;
+                continue;
+            }
+
+            int length = segment.getInt(offset);
+            long sequence = segment.getLong(offset + 8);
+            if (sequence > durableSequence) {
+                break;
+            }
+            long timestamp = segment.getLong(offset + 16);
+            byte[] payload = new byte[length];
+            segment.get(offset + HEADER_SIZE, payload);
+            offset += HEADER_SIZE + length;
+            entries.add(new Entry(sequence, timestamp, payload, new Position(segmentId, offset)));
+        }
+        return entries;
+    }
+
+    /**
+     * Records that everything before {@code position}, up to {@code sequence}, has been consumed
+     */
+    public void checkpoint(Position position, long sequence) throws IOException {
+
+        Path temporary = directory.resolve(CHECKPOINT + ".tmp");
+        ByteBuffer content = ByteBuffer.allocate(8 + 4 + 8)
+                .putLong(position.getSegment())
+                .putInt(position.getOffset())
+                .putLong(sequence)
+                .flip();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(content);
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+
+        List<Long> consumed;
+        synchronized (this) {
+            checkpoint = position;
+            checkpointSequence = sequence;
+            consumed = new ArrayList<>(segments.headMap(Math.min(position.getSegment(), writeSegment)).keySet());
+            consumed.forEach(segments::remove);
+        }
+        for (long segmentId : consumed) {
+            Files.deleteIfExists(segmentPath(segmentId));
+        }
+    }
+
+    public Position getCheckpoint() {
+        return checkpoint;
+    }
+
+    public long getCheckpointSequence() {
+        return checkpointSequence;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Records appended but not consumed yet
+     */
+    public long getPendingCount() {
+        return lastSequence - checkpointSequence;
+    }
+
+    @Override
+    public synchronized void close() {
+
+        MappedByteBuffer segment = segments.get(writeSegment);
+        if (segment != null) {
+            segment.force();
+        }
+        segments.clear();
+    }
+
+    private void roll() {
+
+        if (segments.size() >= maxSegments) {
+            throw new WriteBehindFullException("Write-behind log is full, " + getPendingCount() + " employees queued");
+        }
+        segments.get(writeSegment).force();
+        try {
+            segments.put(writeSegment + 1, map(writeSegment + 1));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        writeSegment++;
+        writeOffset = 0;
+    }
+
+    private void readCheckpoint() throws IOException {
+
+        Path path = directory.resolve(CHECKPOINT);
+        if (!Files.exists(path)) {
+            checkpoint = new Position(0, 0);
+            checkpointSequence = 0;
+            return;
+        }
+        ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(path));
+        checkpoint = new Position(content.getLong(), content.getInt());
+        checkpointSequence = content.getLong();
+    }
+
+    /**
+     * Finds the end of the log, clearing whatever follows it
+     */
+    private void recover() throws IOException {
+
+        List<Long> segmentIds;
+        try (Stream<Path> files = Files.list(directory)) {
+            segmentIds = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        lastSequence = checkpointSequence;
+        boolean ended = false;
+        for (long segmentId : segmentIds) {
+            if (segmentId < checkpoint.getSegment() || ended) {
+                Files.delete(segmentPath(segmentId));
+                continue;
+            }
+            MappedByteBuffer segment = map(segmentId);
+            segments.put(segmentId, segment);
+            int offset = segmentId == checkpoint.getSegment() ? checkpoint.getOffset() : 0;
+            int end;
+            while ((end = recordEnd(segment, offset, lastSequence + 1)) > 0) {
+                lastSequence++;
+                offset = end;
+            }
+            writeSegment = segmentId;
+            writeOffset = offset;
+            if (offset + 4 <= segmentSize && segment.getInt(offset) != 0) {
+                //a torn or stale record, it and everything after it are not part of the log
+                for (int i = offset; i < segmentSize; i++) {
+                    segment.put(i, (byte) 0);
+                }
+                segment.force();
+                ended = true;
+            }
+        }
+        if (segments.isEmpty()) {
+            writeSegment = checkpoint.getOffset() == 0 ? checkpoint.getSegment() : checkpoint.getSegment() + 1;
+            writeOffset = 0;
+            segments.put(writeSegment, map(writeSegment));
+        }
+        durableSequence = lastSequence;
+    }
+
+    /**
+     * @return the offset after the record at {@code offset}, or -1 if there is no valid record with the expected
+     * sequence
+     */
+    private int recordEnd(MappedByteBuffer segment, int offset, long expectedSequence) {
+
+        if (offset + HEADER_SIZE > segmentSize) {
+            return -1;
+        }
+        int length = segment.getInt(offset);
+        if (length <= 0 || length > segmentSize - offset - HEADER_SIZE
+                || segment.getLong(offset + 8) != expectedSequence
+                || segment.getInt(offset + 4) != crc(segment, offset, length)) {
+            return -1;
+        }
+        return offset + HEADER_SIZE + length;
+    }
+
+    private static int crc(MappedByteBuffer segment, int offset, int length) {
+
+        CRC32 crc = new CRC32();
+        crc.update(segment.slice(offset + 8, HEADER_SIZE - 8 + length));
+        return (int) crc.getValue();
+    }
+
+    private MappedByteBuffer map(long segmentId) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(segmentPath(segmentId), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private Path segmentPath(long segmentId) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segmentId, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * A place in the log: a segment and an offset in it
+     */
+    @Value
+    public static class Position {
+
+        long segment;
+
+        int offset;
+    }
+
+    @Value
+    public static class Entry {
+
+        long sequence;
+
+        /**
+         * When the record was appended, in epoch milliseconds
+         */
+        long timestamp;
+
+        byte[] payload;
+
+        /**
+         * Where the record after this one starts
+         */
+        Position next;
+    }
+}
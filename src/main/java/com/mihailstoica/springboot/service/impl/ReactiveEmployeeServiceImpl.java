@@ -0,0 +1,72 @@
+package com.mihailstoica.springboot.service.impl;
+
+import com.mihailstoica.springboot.exception.ResourceNotFoundException;
+import com.mihailstoica.springboot.model.ReactiveEmployee;
+import com.mihailstoica.springboot.repository.ReactiveEmployeeRepository;
+import com.mihailstoica.springboot.service.ReactiveEmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Profile("reactive")
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+
+    /**
+     * allocationSize of the employees_seq generator of {@link com.mihailstoica.springboot.model.Employee}
+     */
+    static final int ID_ALLOCATION_SIZE = 50;
+
+    private final ReactiveEmployeeRepository employeeRepository;
+
+    public ReactiveEmployeeServiceImpl(ReactiveEmployeeRepository employeeRepository) {
+        this.employeeRepository = employeeRepository;
+    }
+
+    /**
+     * Ids are drawn from employees_seq like the JPA entity's pooled generator does, a block of
+     * {@value #ID_ALLOCATION_SIZE} at a time of which only the highest is used: the table has no auto_increment
+     * and the blocks never overlap the ones the servlet stack hands out
+     */
+    @Override
+    @Transactional
+    public Mono<ReactiveEmployee> saveEmployee(ReactiveEmployee employee) {
+
+        //a null version makes the save an insert, the unique index on email rejects duplicates
+        return employeeRepository.incrementNextId(ID_ALLOCATION_SIZE)
+                .then(employeeRepository.findNextId())
+                .flatMap(nextId -> employeeRepository.save(employee.toBuilder()
+                        .id(nextId - ID_ALLOCATION_SIZE)
+                        .version(null)
+                        .build()))
+                .onErrorMap(DataIntegrityViolationException.class, e -> new ResourceNotFoundException(
+                        "Employee already exist with given email: " + employee.getEmail(), e));
+    }
+
+    @Override
+    public Flux<ReactiveEmployee> getAllEmployees() {
+
+        return employeeRepository.findAllByOrderByIdAsc();
+    }
+
+    @Override
+    public Mono<ReactiveEmployee> getEmployeeById(long id) {
+
+        return employeeRepository.findById(id);
+    }
+
+    @Override
+    public Mono<ReactiveEmployee> updateEmployee(ReactiveEmployee updatedEmployee) {
+
+        return employeeRepository.save(updatedEmployee);
+    }
+
+    @Override
+    public Mono<Boolean> deleteEmployee(long id) {
+
+        return employeeRepository.deleteEmployeeById(id).map(deletedRows -> deletedRows > 0);
+    }
+}
@@ -0,0 +1,282 @@
+package com.mihailstoica.springboot.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mihailstoica.springboot.config.WriteBehindProperties;
+import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.model.EmployeeBatchResult;
+import com.mihailstoica.springboot.model.EmployeeIngestStatus;
+import com.mihailstoica.springboot.service.EmployeeIngestService;
+import com.mihailstoica.springboot.service.EmployeeService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind creates: the employee is appended to an {@link EmployeeWriteLog} and acknowledged once it is on disk,
+ * a background writer drains the log into {@link EmployeeService#saveEmployees(List)} batches and checkpoints after
+ * each. Employees queued before a crash are replayed from the last checkpoint on startup; a batch inserted but not
+ * checkpointed comes back as DUPLICATE, the email being unique.
+ * <p>
+ * The queue is exported as {@code employees.write.behind.depth} (employees queued) and
+ * {@code employees.write.behind.lag} (age of the oldest one).
+ */
+@Slf4j
+@Service
+@Profile("!reactive")
+@ConditionalOnProperty(name = "app.write-behind.enabled", havingValue = "true")
+public class WriteBehindEmployeeIngestService implements EmployeeIngestService, SmartLifecycle {
+
+    private final EmployeeService employeeService;
+
+    private final WriteBehindProperties properties;
+
+    private final ObjectWriter employeeWriter;
+
+    private final ObjectReader employeeReader;
+
+    private final EmployeeWriteLog writeLog;
+
+    private final Cache<Long, EmployeeIngestStatus> results;
+
+    /**
+     * Append time of the oldest queued employee, 0 if none is queued
+     */
+    private volatile long oldestQueuedMillis;
+
+    private ScheduledExecutorService writer;
+
+    public WriteBehindEmployeeIngestService(EmployeeService employeeService, WriteBehindProperties properties,
+                                            ObjectMapper objectMapper, MeterRegistry meterRegistry)
+            throws IOException {
+
+        this.employeeService = employeeService;
+        this.properties = properties;
+        this.employeeWriter = objectMapper.writerFor(Employee.class);
+        this.employeeReader = objectMapper.readerFor(Employee.class);
+        this.writeLog = new EmployeeWriteLog(properties.getDirectory(), (int) properties.getSegmentSize().toBytes(),
+                properties.getMaxSegments(), properties.getGroupCommitDelay());
+        this.results = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumResults())
+                .build();
+
+        Gauge.builder("employees.write.behind.depth", writeLog, EmployeeWriteLog::getPendingCount)
+                .description("Employees queued for a write-behind insert")
+                .register(meterRegistry);
+        TimeGauge.builder("employees.write.behind.lag", this, TimeUnit.MILLISECONDS,
+                        WriteBehindEmployeeIngestService::getLagMillis)
+                .description("Time the oldest queued employee has been waiting")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public EmployeeIngestStatus enqueue(Employee employee) {
+
+        byte[] payload;
+        try {
+            payload = employeeWriter.writeValueAsBytes(employee);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long sequence = writeLog.append(payload);
+        if (oldestQueuedMillis == 0) {
+            oldestQueuedMillis = System.currentTimeMillis();
+        }
+        writeLog.awaitDurable(sequence);
+        return new EmployeeIngestStatus(sequence, EmployeeIngestStatus.State.QUEUED, null);
+    }
+
+    @Override
+    public Optional<EmployeeIngestStatus> getStatus(long sequence) {
+
+        if (sequence <= 0 || sequence > writeLog.getLastSequence()) {
+            return Optional.empty();
+        }
+        if (sequence > writeLog.getCheckpointSequence()) {
+            return Optional.of(new EmployeeIngestStatus(sequence, EmployeeIngestStatus.State.QUEUED, null));
+        }
+        EmployeeIngestStatus status = results.getIfPresent(sequence);
+        return Optional.of(status != null
+                ? status
+                : new EmployeeIngestStatus(sequence, EmployeeIngestStatus.State.UNKNOWN, null));
+    }
+
+    /**
+     * Inserts queued employees batch by batch until the log is drained or a batch fails. A failed batch is retried
+     * row by row so a record the database always rejects is marked {@link EmployeeIngestStatus.State#FAILED} and
+     * skipped instead of holding up every create queued behind it; a transient failure stops the run, the rest is
+     * retried on the next one.
+     */
+    public synchronized void drain() {
+
+        while (true) {
+            List<EmployeeWriteLog.Entry> entries = writeLog.read(writeLog.getCheckpoint(), properties.getBatchSize());
+            if (entries.isEmpty()) {
+                break;
+            }
+
+            List<Employee> employees = new ArrayList<>(entries.size());
+            for (EmployeeWriteLog.Entry entry : entries) {
+                employees.add(employee(entry));
+            }
+            List<EmployeeBatchResult> batchResults;
+            try {
+                batchResults = employeeService.saveEmployees(employees);
+            } catch (RuntimeException e) {
+                log.warn("Write-behind insert of {} employees failed, retrying them one by one from sequence {}",
+                        entries.size(), entries.get(0).getSequence(), e);
+                if (!drainOneByOne(entries, employees)) {
+                    break;
+                }
+                continue;
+            }
+            for (EmployeeBatchResult result : batchResults) {
+                putResult(entries.get(result.getIndex()), result);
+            }
+
+            checkpoint(entries.get(entries.size() - 1));
+            if (entries.size() < properties.getBatchSize()) {
+                break;
+            }
+        }
+
+        List<EmployeeWriteLog.Entry> oldest = writeLog.read(writeLog.getCheckpoint(), 1);
+        oldestQueuedMillis = oldest.isEmpty() ? 0 : oldest.get(0).getTimestamp();
+    }
+
+    /**
+     * Inserts the employees of a failed batch one at a time and checkpoints after the last one handled
+     *
+     * @return false if a row failed for a reason that may go away, the run then stops at that row
+     */
+    private boolean drainOneByOne(List<EmployeeWriteLog.Entry> entries, List<Employee> employees) {
+
+        EmployeeWriteLog.Entry handled = null;
+        boolean drained = true;
+        for (int i = 0; i < entries.size(); i++) {
+            EmployeeWriteLog.Entry entry = entries.get(i);
+            try {
+                putResult(entry, employeeService.saveEmployees(List.of(employees.get(i))).get(0));
+            } catch (RuntimeException e) {
+                if (!isRejected(e)) {
+                    log.warn("Write-behind insert failed, retrying from sequence {}", entry.getSequence(), e);
+                    drained = false;
+                    break;
+                }
+                log.error("Write-behind record {} was rejected and is skipped", entry.getSequence(), e);
+                results.put(entry.getSequence(),
+                        new EmployeeIngestStatus(entry.getSequence(), EmployeeIngestStatus.State.FAILED, null));
+            }
+            handled = entry;
+        }
+        if (handled != null) {
+            checkpoint(handled);
+        }
+        return drained;
+    }
+
+    /**
+     * A constraint or data error fails the row again on every retry, a timeout or a lost connection may not
+     */
+    private static boolean isRejected(RuntimeException e) {
+        return e instanceof NonTransientDataAccessException && !(e instanceof NonTransientDataAccessResourceException);
+    }
+
+    private void putResult(EmployeeWriteLog.Entry entry, EmployeeBatchResult result) {
+
+        results.put(entry.getSequence(), new EmployeeIngestStatus(entry.getSequence(),
+                EmployeeIngestStatus.State.valueOf(result.getStatus().name()), result.getId()));
+    }
+
+    private void checkpoint(EmployeeWriteLog.Entry last) {
+
+        try {
+            writeLog.checkpoint(last.getNext(), last.getSequence());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A record that no longer reads as an employee is inserted as an empty one, which saveEmployees reports INVALID
+     */
+    private Employee employee(EmployeeWriteLog.Entry entry) {
+
+        try {
+            return employeeReader.readValue(entry.getPayload());
+        } catch (IOException e) {
+            log.warn("Write-behind record {} is not an employee", entry.getSequence(), e);
+            return new Employee();
+        }
+    }
+
+    private double getLagMillis() {
+
+        long oldest = oldestQueuedMillis;
+        return oldest == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest);
+    }
+
+    @Override
+    public synchronized void start() {
+
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        //the first run replays whatever was queued before the last shutdown or crash
+        writer.scheduleWithFixedDelay(() -> {
+            try {
+                drain();
+            } catch (RuntimeException e) {
+                log.error("Write-behind writer failed", e);
+            }
+        }, 0, properties.getDrainInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+
+        writer.shutdown();
+        try {
+            writer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        //whatever is still queued is on disk and replayed on the next start
+        writeLog.close();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return writer != null;
+    }
+
+    /**
+     * Started before and stopped after the web server, so no create is accepted while the writer is down
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1024;
+    }
+}
@@ -0,0 +1,20 @@
+-- employees table as previously created by hibernate.ddl-auto=update, "if not exists" so databases
+-- created that way are adopted as they are (spring.flyway.baseline-version=0)
+create table if not exists employees (
+    id bigint not null,
+    version bigint not null default 0,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    email varchar(255) not null,
+    primary key (id),
+    -- also serves every finder filtering on email, equality on it matches at most one row
+    constraint uk_employees_email unique (email)
+);
+
+-- pooled id generator of Employee, a table because MySQL has no sequences
+create table if not exists employees_seq (
+    next_val bigint
+);
+
+insert into employees_seq (next_val)
+select 1 from dual where not exists (select * from employees_seq);
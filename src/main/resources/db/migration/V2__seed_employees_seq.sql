@@ -0,0 +1,3 @@
+-- rows inserted before ids came from employees_seq must not be handed out again
+update employees_seq
+set next_val = greatest(next_val, (select coalesce(max(id), 0) + 1 from employees));
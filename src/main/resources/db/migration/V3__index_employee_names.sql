@@ -0,0 +1,2 @@
+-- findByFirstNameAndLastName, leftmost prefix also serves lookups by first name alone
+create index idx_employees_first_name_last_name on employees (first_name, last_name);
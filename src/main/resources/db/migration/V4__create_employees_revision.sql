@@ -0,0 +1,10 @@
+-- single-row change marker of the employees table, incremented by every write of EmployeeServiceImpl and
+-- used as the ETag of the list endpoints
+create table if not exists employees_revision (
+    id tinyint not null,
+    revision bigint not null,
+    primary key (id)
+);
+
+insert into employees_revision (id, revision)
+select 1, 0 from dual where not exists (select * from employees_revision);
@@ -0,0 +1,18 @@
+-- transactional outbox of EmployeeServiceImpl, one row per changed employee written in the same transaction as
+-- the change and streamed by GET /api/employees/changes. Rows are inserted after the employees_revision row is
+-- updated, whose lock is held until commit, so ids are allocated in commit order and a consumer resuming after
+-- an id never misses a row committed later with a smaller one.
+create table if not exists employee_changes (
+    id bigint not null auto_increment,
+    type varchar(16) not null,
+    employee_id bigint not null,
+    -- all set for SAVED, only the changed fields for PATCHED, none for DELETED
+    first_name varchar(255),
+    last_name varchar(255),
+    email varchar(255),
+    changed_at timestamp(3) not null default current_timestamp(3),
+    primary key (id)
+);
+
+-- retention cleanup
+create index idx_employee_changes_changed_at on employee_changes (changed_at);
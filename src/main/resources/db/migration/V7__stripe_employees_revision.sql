@@ -0,0 +1,10 @@
+-- splits the employees revision over 16 slot rows, EmployeeRepository.REVISION_SLOTS: every write increments one
+-- slot picked at random and the revision is their sum, so concurrent writes only wait for each other's row lock
+-- when they pick the same slot. Slot 1 keeps the revision reached so far, the sum never goes back to a value
+-- already sent as an ETag.
+--
+-- The outbox no longer commits in id order behind the single row lock, EmployeeChangeStream holds changes back
+-- at a gap in the ids until the transaction that allocated the missing one had time to commit.
+insert into employees_revision (id, revision)
+values (2, 0), (3, 0), (4, 0), (5, 0), (6, 0), (7, 0), (8, 0), (9, 0),
+       (10, 0), (11, 0), (12, 0), (13, 0), (14, 0), (15, 0), (16, 0);
@@ -0,0 +1,20 @@
+-- employees table for the R2DBC H2 stand-in of the reactive profile,
+-- matches the Flyway schema of the JPA entity: ids come from employees_seq, not auto_increment
+create table if not exists employees (
+    id bigint not null,
+    version bigint not null default 0,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    email varchar(255) not null,
+    primary key (id),
+    constraint uk_employees_email unique (email)
+);
+
+create index if not exists idx_employees_first_name_last_name on employees (first_name, last_name);
+
+create table if not exists employees_seq (
+    next_val bigint
+);
+
+insert into employees_seq (next_val)
+select 1 from dual where not exists (select * from employees_seq);
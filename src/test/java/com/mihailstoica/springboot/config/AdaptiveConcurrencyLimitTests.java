@@ -0,0 +1,48 @@
+package com.mihailstoica.springboot.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimitTests {
+
+    //JUnit test for release method, requests overloaded together lower the limit once
+    @DisplayName("JUnit test for release method, requests overloaded together lower the limit once")
+    @Test
+    public void givenConcurrentOverloadedRequests_whenRelease_thenLowerLimitOnce() {
+
+        //given - precondition or setup
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(new AdmissionControlProperties.Limit(10, 2, 20));
+        long[] tickets = new long[5];
+        for (int i = 0; i < tickets.length; i++) {
+            tickets[i] = limit.tryAcquire();
+        }
+
+        //when - action or behaviour that we are going to test
+        for (long ticket : tickets) {
+            limit.release(ticket, true);
+        }
+
+        //then - verify the output
+        assertThat(limit.getLimit()).isEqualTo(9);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    //JUnit test for release method, a request admitted after a decrease may lower the limit again
+    @DisplayName("JUnit test for release method, a request admitted after a decrease may lower the limit again")
+    @Test
+    public void givenRequestAdmittedAfterDecrease_whenReleaseOverloaded_thenLowerLimitAgain() {
+
+        //given - precondition or setup
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(new AdmissionControlProperties.Limit(10, 2, 20));
+        limit.release(limit.tryAcquire(), true);
+        long ticket = limit.tryAcquire();
+
+        //when - action or behaviour that we are going to test
+        limit.release(ticket, true);
+
+        //then - verify the output
+        assertThat(limit.getLimit()).isEqualTo(8);
+    }
+}
@@ -0,0 +1,135 @@
+package com.mihailstoica.springboot.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdmissionControlFilterTests {
+
+    private AdmissionControlProperties properties;
+
+    private MeterRegistry meterRegistry;
+
+    private AdmissionControlFilter filter;
+
+    @BeforeEach
+    public void setup() {
+        this.properties = new AdmissionControlProperties();
+        properties.setRate(1);
+        properties.setBurst(2);
+        properties.setWrite(new AdmissionControlProperties.Limit(1, 1, 2));
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.filter = new AdmissionControlFilter(properties, meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SqlStatementStatistics.stop();
+    }
+
+    //JUnit test for the per-client rate limit
+    @DisplayName("JUnit test for the per-client rate limit")
+    @Test
+    public void givenClientOverItsBurst_whenRequest_thenReturn429() throws Exception {
+
+        //given - precondition or setup
+        perform("GET", "10.0.0.1", (request, response) -> { });
+        perform("GET", "10.0.0.1", (request, response) -> { });
+
+        //when - action or behaviour that we are going to test
+        MockHttpServletResponse rejected = perform("GET", "10.0.0.1", (request, response) -> { });
+        MockHttpServletResponse otherClient = perform("GET", "10.0.0.2", (request, response) -> { });
+
+        //then - verify the output
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(otherClient.getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get("http.server.requests.rejected").tag("reason", "rate").counter().count())
+                .isEqualTo(1);
+    }
+
+    //JUnit test for the per-client rate limit, a client id header does not make a new client
+    @DisplayName("JUnit test for the per-client rate limit, a client id header does not make a new client")
+    @Test
+    public void givenNewClientIdPerRequest_whenRequest_thenReturn429() throws Exception {
+
+        //given - precondition or setup
+        perform("GET", "10.0.0.1", (request, response) -> { });
+        perform("GET", "10.0.0.1", (request, response) -> { });
+
+        //when - action or behaviour that we are going to test
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/employees");
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader(ReadYourWritesFilter.CLIENT_HEADER, "client-" + System.nanoTime());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (nestedRequest, nestedResponse) -> { });
+
+        //then - verify the output
+        assertThat(response.getStatus()).isEqualTo(429);
+    }
+
+    //JUnit test for the write concurrency limit, reads have their own
+    @DisplayName("JUnit test for the write concurrency limit, reads have their own")
+    @Test
+    public void givenWriteLimitReached_whenRequest_thenReturn503ForWritesOnly() throws Exception {
+
+        //given - precondition or setup
+        MockHttpServletResponse[] concurrent = new MockHttpServletResponse[2];
+
+        //when - action or behaviour that we are going to test
+        perform("POST", "10.0.0.1", (request, response) -> {
+            concurrent[0] = perform("POST", "10.0.0.2", (nestedRequest, nestedResponse) -> { });
+            concurrent[1] = perform("GET", "10.0.0.3", (nestedRequest, nestedResponse) -> { });
+        });
+
+        //then - verify the output
+        assertThat(concurrent[0].getStatus()).isEqualTo(503);
+        assertThat(concurrent[0].getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(concurrent[1].getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get("http.server.requests.concurrency.in.flight").tag("type", "write").gauge()
+                .value()).isZero();
+    }
+
+    //JUnit test for the adaptive limit, lowered when requests wait for connections
+    @DisplayName("JUnit test for the adaptive limit, lowered when requests wait for connections")
+    @Test
+    public void givenLongConnectionWait_whenRequest_thenLowerLimit() throws Exception {
+
+        //given - precondition or setup
+        properties.setRead(new AdmissionControlProperties.Limit(10, 2, 20));
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new AdmissionControlFilter(properties, meterRegistry);
+        SqlStatementStatistics.start();
+
+        //when - action or behaviour that we are going to test
+        perform("GET", "10.0.0.1", (request, response) ->
+                SqlStatementStatistics.connectionAcquired(TimeUnit.MILLISECONDS.toNanos(50)));
+
+        //then - verify the output
+        assertThat(meterRegistry.get("http.server.requests.concurrency.limit").tag("type", "read").gauge().value())
+                .isEqualTo(9);
+    }
+
+    private MockHttpServletResponse perform(String method, String client, FilterChain chain)
+            throws ServletException, IOException {
+
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/employees");
+        request.setRemoteAddr(client);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
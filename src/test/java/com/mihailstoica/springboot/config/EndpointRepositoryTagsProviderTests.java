@@ -0,0 +1,79 @@
+package com.mihailstoica.springboot.config;
+
+import com.mihailstoica.springboot.repository.EmployeeRepository;
+import io.micrometer.core.instrument.Tag;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocation;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocationResult;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class EndpointRepositoryTagsProviderTests {
+
+    @Mock
+    private RepositoryMethodInvocationResult result;
+
+    private RepositoryMethodInvocation invocation;
+
+    private EndpointRepositoryTagsProvider tagsProvider;
+
+    @BeforeEach
+    public void setup() throws NoSuchMethodException {
+        given(result.getState()).willReturn(RepositoryMethodInvocationResult.State.SUCCESS);
+        this.invocation = new RepositoryMethodInvocation(EmployeeRepository.class,
+                EmployeeRepository.class.getMethod("findByLastNameAndEmail", String.class, String.class), result,
+                TimeUnit.MILLISECONDS.toNanos(3));
+        this.tagsProvider = new EndpointRepositoryTagsProvider();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    //JUnit test for repositoryTags method inside a request
+    @DisplayName("JUnit test for repositoryTags method inside a request")
+    @Test
+    public void givenMappedRequest_whenRepositoryTags_thenTagEndpoint() {
+
+        //given - precondition or setup
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/employees/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/employees/{id}");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        //when - action or behaviour that we are going to test
+        Iterable<Tag> tags = tagsProvider.repositoryTags(invocation);
+
+        //then - verify the output
+        assertThat(tags).contains(Tag.of("endpoint", "GET /api/employees/{id}"),
+                Tag.of("repository", "EmployeeRepository"), Tag.of("method", "findByLastNameAndEmail"));
+    }
+
+    //JUnit test for repositoryTags method outside a request
+    @DisplayName("JUnit test for repositoryTags method outside a request")
+    @Test
+    public void givenNoRequest_whenRepositoryTags_thenTagNone() {
+
+        //given - precondition or setup
+
+        //when - action or behaviour that we are going to test
+        Iterable<Tag> tags = tagsProvider.repositoryTags(invocation);
+
+        //then - verify the output
+        assertThat(tags).contains(Tag.of("endpoint", "none"));
+    }
+}
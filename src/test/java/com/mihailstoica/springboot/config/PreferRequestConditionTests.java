@@ -0,0 +1,49 @@
+package com.mihailstoica.springboot.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PreferRequestConditionTests {
+
+    private final PreferRequestCondition condition = new PreferRequestCondition("respond-async");
+
+    //JUnit test for getMatchingCondition method, the preference listed among others
+    @DisplayName("JUnit test for getMatchingCondition method, the preference listed among others")
+    @Test
+    public void givenPreferenceAmongOthers_whenGetMatchingCondition_thenMatch() {
+
+        //given - precondition or setup
+        MockHttpServletRequest withWait = new MockHttpServletRequest("POST", "/api/employees");
+        withWait.addHeader(PreferRequestCondition.PREFER_HEADER, "respond-async, wait=5");
+        MockHttpServletRequest afterOther = new MockHttpServletRequest("POST", "/api/employees");
+        afterOther.addHeader(PreferRequestCondition.PREFER_HEADER, "handling=lenient, Respond-Async");
+        MockHttpServletRequest inSecondHeader = new MockHttpServletRequest("POST", "/api/employees");
+        inSecondHeader.addHeader(PreferRequestCondition.PREFER_HEADER, "return=minimal");
+        inSecondHeader.addHeader(PreferRequestCondition.PREFER_HEADER, "respond-async; foo=bar");
+
+        //when - action or behaviour that we are going to test
+        //then - verify the output
+        assertThat(condition.getMatchingCondition(withWait)).isSameAs(condition);
+        assertThat(condition.getMatchingCondition(afterOther)).isSameAs(condition);
+        assertThat(condition.getMatchingCondition(inSecondHeader)).isSameAs(condition);
+    }
+
+    //JUnit test for getMatchingCondition method, other preferences or none
+    @DisplayName("JUnit test for getMatchingCondition method, other preferences or none")
+    @Test
+    public void givenOtherPreferences_whenGetMatchingCondition_thenNoMatch() {
+
+        //given - precondition or setup
+        MockHttpServletRequest other = new MockHttpServletRequest("POST", "/api/employees");
+        other.addHeader(PreferRequestCondition.PREFER_HEADER, "respond-asynchronously, return=respond-async");
+        MockHttpServletRequest none = new MockHttpServletRequest("POST", "/api/employees");
+
+        //when - action or behaviour that we are going to test
+        //then - verify the output
+        assertThat(condition.getMatchingCondition(other)).isNull();
+        assertThat(condition.getMatchingCondition(none)).isNull();
+    }
+}
@@ -0,0 +1,54 @@
+package com.mihailstoica.springboot.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReplicaRoutingConfigTests {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(ReplicaRoutingConfig.class)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withPropertyValues(
+                    "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+                    "app.datasource.replicas[0].url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+                    "app.datasource.health-check-interval=0s");
+
+    //JUnit test for the pools, the primary is configured like the pool Spring Boot would create
+    @DisplayName("JUnit test for the primary and replica pool settings")
+    @Test
+    public void givenHikariProperties_whenCreatePools_thenBindPrimaryAndShortenReplicaTimeout() {
+
+        //given - precondition or setup
+        ApplicationContextRunner runner = contextRunner
+                .withUserConfiguration(Properties.class)
+                .withPropertyValues(
+                        "spring.datasource.hikari.maximum-pool-size=16",
+                        "spring.datasource.hikari.connection-timeout=3000",
+                        "app.datasource.replicas[0].connection-timeout=500ms");
+
+        //when - action or behaviour that we are going to test
+        runner.run(context -> {
+            HikariDataSource primary = context.getBean("primaryDataSource", HikariDataSource.class);
+            ReplicaRoutingDataSource routingDataSource = context.getBean(ReplicaRoutingDataSource.class);
+            HikariDataSource replica = (HikariDataSource) routingDataSource.getResolvedDataSources().get("replica-0");
+
+            //then - verify the output
+            assertThat(primary.getPoolName()).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+            assertThat(primary.getMaximumPoolSize()).isEqualTo(16);
+            assertThat(primary.getConnectionTimeout()).isEqualTo(3000);
+            assertThat(replica.getConnectionTimeout()).isEqualTo(500);
+        });
+    }
+
+    @EnableConfigurationProperties({DataSourceProperties.class, ReplicaRoutingProperties.class})
+    static class Properties {
+    }
+}
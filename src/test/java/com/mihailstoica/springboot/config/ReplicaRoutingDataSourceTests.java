@@ -0,0 +1,164 @@
+package com.mihailstoica.springboot.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * One in-process H2 database per node, each knowing its own name, behind the same lazy proxy and transaction
+ * manager the application uses
+ */
+public class ReplicaRoutingDataSourceTests {
+
+    private final Map<String, DriverManagerDataSource> replicas = new LinkedHashMap<>();
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readWriteTransaction;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    public void setup() {
+        DataSource primary = node("primary");
+        replicas.put("replica-0", node("replica-0"));
+        replicas.put("replica-1", node("replica-1"));
+        routingDataSource = new ReplicaRoutingDataSource(primary, new LinkedHashMap<>(replicas), Duration.ZERO);
+        routingDataSource.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ReplicaRoutingDataSource.setPrimaryOnly(false);
+    }
+
+    //JUnit test for routing a read-write transaction
+    @DisplayName("JUnit test for routing a read-write transaction")
+    @Test
+    public void givenReadWriteTransaction_whenQuery_thenUsePrimary() {
+
+        //given - precondition or setup
+
+        //when - action or behaviour that we are going to test
+        String node = readWriteTransaction.execute(status -> currentNode());
+
+        //then - verify the output
+        assertThat(node).isEqualTo("primary");
+    }
+
+    //JUnit test for routing read-only transactions, round robin over the replicas
+    @DisplayName("JUnit test for routing read-only transactions")
+    @Test
+    public void givenReadOnlyTransactions_whenQuery_thenAlternateReplicas() {
+
+        //given - precondition or setup
+        List<String> nodes = new ArrayList<>();
+
+        //when - action or behaviour that we are going to test
+        for (int i = 0; i < 4; i++) {
+            nodes.add(readOnlyTransaction.execute(status -> currentNode()));
+        }
+
+        //then - verify the output
+        assertThat(nodes).containsOnly("replica-0", "replica-1");
+        assertThat(nodes.get(0)).isNotEqualTo(nodes.get(1));
+        assertThat(nodes.subList(0, 2)).isEqualTo(nodes.subList(2, 4));
+    }
+
+    //JUnit test for a read-only transaction of a client that must read its own writes
+    @DisplayName("JUnit test for routing a read-only transaction kept on the primary")
+    @Test
+    public void givenPrimaryOnly_whenReadOnlyTransaction_thenUsePrimary() {
+
+        //given - precondition or setup
+        ReplicaRoutingDataSource.setPrimaryOnly(true);
+
+        //when - action or behaviour that we are going to test
+        String node = readOnlyTransaction.execute(status -> currentNode());
+
+        //then - verify the output
+        assertThat(node).isEqualTo("primary");
+    }
+
+    //JUnit test for a read-only transaction run on the primary, the thread goes back to the replicas afterwards
+    @DisplayName("JUnit test for routing a read-only transaction run on the primary")
+    @Test
+    public void givenOnPrimary_whenReadOnlyTransaction_thenUsePrimaryOnlyForIt() {
+
+        //given - precondition or setup
+
+        //when - action or behaviour that we are going to test
+        String node = ReplicaRoutingDataSource.onPrimary(() -> readOnlyTransaction.execute(status -> currentNode()));
+        String nextNode = readOnlyTransaction.execute(status -> currentNode());
+
+        //then - verify the output
+        assertThat(node).isEqualTo("primary");
+        assertThat(nextNode).startsWith("replica-");
+    }
+
+    //JUnit test for failing over when a replica cannot be connected to
+    @DisplayName("JUnit test for routing a read-only transaction with a replica down")
+    @Test
+    public void givenReplicaDown_whenReadOnlyTransactions_thenFailOverAndRecover() {
+
+        //given - precondition or setup
+        String workingUrl = replicas.get("replica-0").getUrl();
+        replicas.get("replica-0").setUrl("jdbc:h2:mem:replica-down;IFEXISTS=TRUE");
+        replicas.get("replica-1").setUrl("jdbc:h2:mem:replica-down;IFEXISTS=TRUE");
+
+        //when - action or behaviour that we are going to test
+        List<String> nodes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            nodes.add(readOnlyTransaction.execute(status -> currentNode()));
+        }
+        List<String> healthyWhileDown = routingDataSource.getHealthyReplicas();
+        replicas.get("replica-0").setUrl(workingUrl);
+        routingDataSource.checkReplicas();
+
+        //then - verify the output
+        assertThat(nodes).containsOnly("primary");
+        assertThat(healthyWhileDown).isEmpty();
+        assertThat(routingDataSource.getHealthyReplicas()).containsExactly("replica-0");
+        String recovered = readOnlyTransaction.execute(status -> currentNode());
+        assertThat(recovered).isEqualTo("replica-0");
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private static DriverManagerDataSource node(String name) {
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists node (name varchar(32))");
+        jdbcTemplate.update("delete from node");
+        jdbcTemplate.update("insert into node (name) values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,53 @@
+package com.mihailstoica.springboot.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StartupMonitorTests {
+
+    private MeterRegistry meterRegistry;
+
+    private StartupMonitor startupMonitor;
+
+    @BeforeEach
+    public void setup() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.startupMonitor = new StartupMonitor(new StartupProperties(), meterRegistry);
+    }
+
+    //JUnit test for onRequestHandled method, only the first request counts
+    @DisplayName("JUnit test for onRequestHandled method")
+    @Test
+    public void givenTwoRequests_whenOnRequestHandled_thenRecordFirstOnly() throws InterruptedException {
+
+        //given - precondition or setup
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+        //when - action or behaviour that we are going to test
+        startupMonitor.onRequestHandled(requestHandled("/api/employees/1"));
+        double firstRequestTime = meterRegistry.get("application.first.request.time").timeGauge()
+                .value(TimeUnit.MILLISECONDS);
+        Thread.sleep(5);
+        startupMonitor.onRequestHandled(requestHandled("/api/employees/2"));
+
+        //then - verify the output
+        TimeGauge timeGauge = meterRegistry.get("application.first.request.time").timeGauge();
+        assertThat(timeGauge.value(TimeUnit.MILLISECONDS)).isEqualTo(firstRequestTime);
+        assertThat(firstRequestTime).isBetween(0.0, (double) (System.currentTimeMillis() - jvmStart));
+    }
+
+    private ServletRequestHandledEvent requestHandled(String url) {
+
+        return new ServletRequestHandledEvent(this, url, "127.0.0.1", "GET", "dispatcherServlet", null, null, 1);
+    }
+}
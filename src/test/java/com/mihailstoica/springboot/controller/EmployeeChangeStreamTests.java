@@ -0,0 +1,171 @@
+package com.mihailstoica.springboot.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mihailstoica.springboot.config.ChangeStreamProperties;
+import com.mihailstoica.springboot.model.EmployeeChange;
+import com.mihailstoica.springboot.model.EmployeeChangedEvent;
+import com.mihailstoica.springboot.service.EmployeeChangeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeChangeStreamTests {
+
+    @Mock
+    private EmployeeChangeService employeeChangeService;
+
+    private MeterRegistry meterRegistry;
+
+    private ChangeStreamProperties properties;
+
+    private EmployeeChangeStream employeeChangeStream;
+
+    @BeforeEach
+    public void setup() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.properties = new ChangeStreamProperties();
+        properties.setBatchSize(2);
+        this.employeeChangeStream = new EmployeeChangeStream(employeeChangeService, properties,
+                new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry);
+    }
+
+    //JUnit test for poll, subscribers at the same position share the query
+    @DisplayName("JUnit test for poll, subscribers at the same position share the query")
+    @Test
+    public void givenSubscribersAtSamePosition_whenPoll_thenQueryOncePerBatch() throws Exception {
+
+        //given - precondition or setup
+        given(employeeChangeService.getLatestChangeId()).willReturn(5L);
+        given(employeeChangeService.getChangesAfter(5L, 2)).willReturn(List.of(change(6L), change(7L)));
+        given(employeeChangeService.getChangesAfter(7L, 2)).willReturn(List.of(change(8L)));
+        given(employeeChangeService.getChangesAfter(8L, 2)).willReturn(List.of());
+        employeeChangeStream.subscribe(null);
+        employeeChangeStream.subscribe(null);
+
+        //when - action or behaviour that we are going to test
+        employeeChangeStream.poll();
+        employeeChangeStream.poll();
+
+        //then - verify the output
+        verify(employeeChangeService, times(1)).getChangesAfter(5L, 2);
+        verify(employeeChangeService, times(1)).getChangesAfter(7L, 2);
+        verify(employeeChangeService, times(1)).getChangesAfter(8L, 2);
+        assertThat(meterRegistry.get("employees.changes.subscribers").gauge().value()).isEqualTo(2);
+    }
+
+    //JUnit test for subscribe, a position older than the retention is reset to the latest change
+    @DisplayName("JUnit test for subscribe, a position older than the retention is reset")
+    @Test
+    public void givenPurgedPosition_whenSubscribe_thenContinueFromLatestChange() throws Exception {
+
+        //given - precondition or setup
+        given(employeeChangeService.getOldestChangeId()).willReturn(10L);
+        given(employeeChangeService.getLatestChangeId()).willReturn(20L);
+
+        //when - action or behaviour that we are going to test
+        employeeChangeStream.subscribe(3L);
+        employeeChangeStream.poll();
+
+        //then - verify the output
+        verify(employeeChangeService).getChangesAfter(20L, 2);
+    }
+
+    //JUnit test for subscribe, a position in an empty outbox is reset
+    @DisplayName("JUnit test for subscribe, a position in an empty outbox is reset")
+    @Test
+    public void givenEmptyOutbox_whenSubscribe_thenContinueFromLatestChange() throws Exception {
+
+        //given - precondition or setup
+        given(employeeChangeService.getOldestChangeId()).willReturn(0L);
+        given(employeeChangeService.getLatestChangeId()).willReturn(0L);
+
+        //when - action or behaviour that we are going to test
+        employeeChangeStream.subscribe(42L);
+        employeeChangeStream.poll();
+
+        //then - verify the output
+        verify(employeeChangeService).getChangesAfter(0L, 2);
+    }
+
+    //JUnit test for subscribe, a position still kept is resumed from
+    @DisplayName("JUnit test for subscribe, a position still kept is resumed from")
+    @Test
+    public void givenKeptPosition_whenSubscribe_thenResumeAfterIt() throws Exception {
+
+        //given - precondition or setup
+        given(employeeChangeService.getOldestChangeId()).willReturn(10L);
+
+        //when - action or behaviour that we are going to test
+        employeeChangeStream.subscribe(9L);
+        employeeChangeStream.poll();
+
+        //then - verify the output
+        verify(employeeChangeService).getChangesAfter(9L, 2);
+    }
+
+    //JUnit test for poll, changes after a missing id are held back while its transaction may still commit
+    @DisplayName("JUnit test for poll, changes after a recent gap are held back")
+    @Test
+    public void givenRecentGap_whenPoll_thenHoldBackChangesAfterIt() throws Exception {
+
+        //given - precondition or setup
+        properties.setGapTimeout(Duration.ofHours(1));
+        given(employeeChangeService.getLatestChangeId()).willReturn(5L);
+        given(employeeChangeService.getChangesAfter(5L, 2)).willReturn(List.of(change(6L), change(8L)));
+        given(employeeChangeService.getChangesAfter(6L, 2)).willReturn(List.of(change(8L)), List.of(change(7L),
+                change(8L)));
+        given(employeeChangeService.getChangesAfter(8L, 2)).willReturn(List.of());
+        employeeChangeStream.subscribe(null);
+
+        //when - action or behaviour that we are going to test
+        employeeChangeStream.poll();
+        employeeChangeStream.poll();
+        employeeChangeStream.poll();
+
+        //then - verify the output
+        verify(employeeChangeService, times(1)).getChangesAfter(5L, 2);
+        verify(employeeChangeService, times(2)).getChangesAfter(6L, 2);
+        verify(employeeChangeService, times(1)).getChangesAfter(8L, 2);
+    }
+
+    //JUnit test for poll, a gap older than the gap timeout is skipped
+    @DisplayName("JUnit test for poll, a gap older than the gap timeout is skipped")
+    @Test
+    public void givenExpiredGap_whenPoll_thenSkipIt() throws Exception {
+
+        //given - precondition or setup
+        properties.setGapTimeout(Duration.ZERO);
+        given(employeeChangeService.getLatestChangeId()).willReturn(5L);
+        given(employeeChangeService.getChangesAfter(5L, 2)).willReturn(List.of(change(7L)));
+        given(employeeChangeService.getChangesAfter(7L, 2)).willReturn(List.of());
+        employeeChangeStream.subscribe(null);
+
+        //when - action or behaviour that we are going to test
+        employeeChangeStream.poll();
+        employeeChangeStream.poll();
+
+        //then - verify the output
+        verify(employeeChangeService, times(1)).getChangesAfter(5L, 2);
+        verify(employeeChangeService, times(1)).getChangesAfter(7L, 2);
+    }
+
+    private static EmployeeChange change(long id) {
+        return new EmployeeChange(id, EmployeeChangedEvent.Type.DELETED, id, null, null, null, Instant.now());
+    }
+}
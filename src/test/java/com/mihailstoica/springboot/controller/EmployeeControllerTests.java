@@ -1,28 +1,46 @@
 package com.mihailstoica.springboot.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.model.EmployeeBatchResult;
+import com.mihailstoica.springboot.model.EmployeePage;
+import com.mihailstoica.springboot.model.EmployeePatch;
+import com.mihailstoica.springboot.model.EmployeeSearchHit;
+import com.mihailstoica.springboot.model.EmployeeSearchResult;
+import com.mihailstoica.springboot.model.RevisionedEmployees;
+import com.mihailstoica.springboot.service.EmployeeSearchService;
 import com.mihailstoica.springboot.service.EmployeeService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest
 public class EmployeeControllerTests {
@@ -33,6 +51,12 @@ public class EmployeeControllerTests {
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private EmployeeSearchService employeeSearchService;
+
+    @MockBean
+    private EmployeeChangeStream employeeChangeStream;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -63,6 +87,58 @@ public class EmployeeControllerTests {
                 .andExpect(jsonPath("$.email", is(employee.getEmail())));
     }
 
+    @DisplayName("JUnit test for upsertEmployee")
+    @Test
+    public void givenEmployeeObject_whenUpsertEmployee_thenReturnStoredEmployee() throws Exception {
+
+        //given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("john.doe@xyz,xyz")
+                .build();
+        //stub method employeeService.upsertEmployee()
+        given(employeeService.upsertEmployee(any(Employee.class)))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .param("upsert", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", is(employee.getEmail())));
+    }
+
+    @DisplayName("JUnit test for createEmployees")
+    @Test
+    public void givenListOfEmployee_whenCreateEmployees_thenReturnPerRowResults() throws Exception {
+
+        //given - precondition or setup
+        List<Employee> listOfEmployees = List.of(
+                Employee.builder().firstName("John").lastName("Doe").email("john.doe@xyz,xyz").build(),
+                Employee.builder().firstName("Jane").lastName("Doe").email("john.doe@xyz,xyz").build());
+        //stub method employeeService.saveEmployees()
+        given(employeeService.saveEmployees(any())).willReturn(List.of(
+                new EmployeeBatchResult(0, EmployeeBatchResult.Status.CREATED, 1L, "john.doe@xyz,xyz"),
+                new EmployeeBatchResult(1, EmployeeBatchResult.Status.DUPLICATE, null, "john.doe@xyz,xyz")));
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(listOfEmployees)));
+
+        //then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(listOfEmployees.size())))
+                .andExpect(jsonPath("$[0].status", is("CREATED")))
+                .andExpect(jsonPath("$[1].status", is("DUPLICATE")));
+    }
+
     @DisplayName("JUnit test for getAllEmployees()")
     @Test
     public void givenListOfEmployee_whenGetAllEmployees_thenReturnEmployeesList() throws Exception {
@@ -72,7 +148,7 @@ public class EmployeeControllerTests {
                 Employee.builder().firstName("John").lastName("Doe").email("john.doe@xyz,xyz").build(),
                 Employee.builder().firstName("Jane").lastName("Doe").email("jane.doe@xyz,xyz").build());
         //stub method employeeService.getAllEmployees()
-        given(employeeService.getAllEmployees()).willReturn(listOfEmployees);
+        given(employeeService.getAllEmployees(any())).willReturn(new RevisionedEmployees<>(7L, listOfEmployees));
 
         //when - action or behaviour that we are going to test
         ResultActions response = mockMvc.perform(get("/api/employees"));
@@ -83,6 +159,144 @@ public class EmployeeControllerTests {
                 .andExpect(jsonPath("$.size()", is(listOfEmployees.size())));
     }
 
+    @DisplayName("JUnit test for getAllEmployees() with the current ETag")
+    @Test
+    public void givenCurrentETag_whenGetAllEmployees_thenReturn304() throws Exception {
+
+        //given - precondition or setup
+        //stub method employeeService.getAllEmployees(), the revision is 7
+        given(employeeService.getAllEmployees(any())).willAnswer(invocation -> {
+            LongPredicate unchanged = invocation.getArgument(0);
+            return new RevisionedEmployees<>(7L, unchanged.test(7L) ? null : List.of());
+        });
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"7\""));
+
+        //then - verify the output
+        response.andExpect(status().isNotModified())
+                .andDo(print())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"7\""));
+    }
+
+    @DisplayName("JUnit test for getAllEmployees() negotiated as CBOR")
+    @Test
+    public void givenCborAccept_whenGetAllEmployees_thenReturnCbor() throws Exception {
+
+        //given - precondition or setup
+        List<Employee> listOfEmployees = List.of(
+                Employee.builder().id(1L).firstName("John").lastName("Doe").email("john.doe@xyz,xyz").build(),
+                Employee.builder().id(2L).firstName("Jane").lastName("Doe").email("jane.doe@xyz,xyz").build());
+        //stub method employeeService.getAllEmployees()
+        given(employeeService.getAllEmployees(any())).willReturn(new RevisionedEmployees<>(7L, listOfEmployees));
+
+        //when - action or behaviour that we are going to test
+        MvcResult result = mockMvc.perform(get("/api/employees").accept(MediaType.APPLICATION_CBOR))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        //then - verify the output
+        List<Employee> employees = new CBORMapper().readValue(result.getResponse().getContentAsByteArray(),
+                new TypeReference<List<Employee>>() {
+                });
+        assertThat(employees).isEqualTo(listOfEmployees);
+    }
+
+    @DisplayName("JUnit test for getEmployeePage()")
+    @Test
+    public void givenCursorAndLimit_whenGetEmployeePage_thenReturnPageAndNextCursor() throws Exception {
+
+        //given - precondition or setup
+        List<Employee> listOfEmployees = List.of(
+                Employee.builder().id(11L).firstName("John").lastName("Doe").email("john.doe@xyz,xyz").build(),
+                Employee.builder().id(12L).firstName("Jane").lastName("Doe").email("jane.doe@xyz,xyz").build());
+        String next = EmployeePage.encodeCursor(12L);
+        //stub method employeeService.getEmployeePage()
+        given(employeeService.getEmployeePage(eq(10L), eq(2), any()))
+                .willReturn(new RevisionedEmployees<>(7L, new EmployeePage(listOfEmployees, next)));
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("limit", "2")
+                .param("cursor", EmployeePage.encodeCursor(10L)));
+
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.employees.size()", is(listOfEmployees.size())))
+                .andExpect(jsonPath("$.next", is(next)));
+    }
+
+    @DisplayName("JUnit test for getEmployeePage() with an invalid cursor")
+    @Test
+    public void givenInvalidCursor_whenGetEmployeePage_thenReturn400() throws Exception {
+
+        //given - precondition or setup
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("limit", "2")
+                .param("cursor", "not-a-cursor"));
+
+        //then - verify the output
+        response.andExpect(status().isBadRequest())
+                .andDo(print());
+    }
+
+    @DisplayName("JUnit test for exportEmployees()")
+    @Test
+    public void givenListOfEmployee_whenExportEmployees_thenStreamOneJsonDocumentPerLine() throws Exception {
+
+        //given - precondition or setup
+        List<Employee> listOfEmployees = List.of(
+                Employee.builder().id(1L).firstName("John").lastName("Doe").email("john.doe@xyz,xyz").build(),
+                Employee.builder().id(2L).firstName("Jane").lastName("Doe").email("jane.doe@xyz,xyz").build());
+        //stub method employeeService.exportEmployees()
+        willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            listOfEmployees.forEach(consumer);
+            return null;
+        }).given(employeeService).exportEmployees(any());
+
+        //when - action or behaviour that we are going to test
+        MvcResult mvcResult = mockMvc.perform(get("/api/employees/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(mvcResult));
+
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(objectMapper.writeValueAsString(listOfEmployees.get(0)) + "\n"
+                        + objectMapper.writeValueAsString(listOfEmployees.get(1)) + "\n"));
+    }
+
+    @DisplayName("JUnit test for searchEmployees()")
+    @Test
+    public void givenQuery_whenSearchEmployees_thenReturnRankedHits() throws Exception {
+
+        //given - precondition or setup
+        EmployeeSearchResult result = new EmployeeSearchResult(List.of(
+                new EmployeeSearchHit(1L, "John", "Doe", "john.doe@xyz,xyz", EmployeeSearchHit.Match.PREFIX),
+                new EmployeeSearchHit(2L, "Jane", "Johnson", "jane.j@xyz,xyz", EmployeeSearchHit.Match.INFIX)), 2);
+        given(employeeSearchService.search("joh", 0, 20)).willReturn(result);
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/search").param("q", "joh"));
+
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.total", is(2)))
+                .andExpect(jsonPath("$.hits[0].id", is(1)))
+                .andExpect(jsonPath("$.hits[0].match", is("PREFIX")))
+                .andExpect(jsonPath("$.hits[1].match", is("INFIX")));
+    }
+
     //positive scenario - valid employee id
     @DisplayName("JUnit test for getEmployeeById() positive scenario")
     @Test
@@ -109,6 +323,27 @@ public class EmployeeControllerTests {
                 .andExpect(jsonPath("$.email", is(employee.getEmail())));
     }
 
+    @DisplayName("JUnit test for getEmployeeById() with a current ETag")
+    @Test
+    public void givenCurrentETag_whenGetEmployeeById_thenReturn304WithoutLoading() throws Exception {
+
+        //given - precondition or setup
+        long employeeId = 1L;
+        //stub method employeeService.getEmployeeVersion()
+        given(employeeService.getEmployeeVersion(employeeId)).willReturn(Optional.of(3L));
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"2\", \"3\""));
+
+        //then - verify the output
+        response.andExpect(status().isNotModified())
+                .andDo(print())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3\""))
+                .andExpect(content().string(""));
+        verify(employeeService, never()).getEmployeeById(employeeId);
+    }
+
     //negative scenario - invalid employee id
     @DisplayName("JUnit test for getEmployeeById() negative scenario")
     @Test
@@ -167,6 +402,39 @@ public class EmployeeControllerTests {
                 .andExpect(jsonPath("$.email", is(updatedEmployee.getEmail())));
     }
 
+    @DisplayName("JUnit test for updateEmployee() with a stale If-Match")
+    @Test
+    public void givenStaleIfMatch_whenUpdateEmployee_thenReturn412() throws Exception {
+
+        //given - precondition or setup
+        long employeeId = 1L;
+        Employee employee = Employee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("john.doe@xyz,xyz")
+                .version(3L)
+                .build();
+
+        Employee updatedEmployee = Employee.builder()
+                .firstName("Jane")
+                .lastName("Doe")
+                .email("jane.doe@xyz,xyz")
+                .build();
+        //stub method employeeService.getEmployeeById()
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+
+        //then - verify the output
+        response.andExpect(status().isPreconditionFailed())
+                .andDo(print());
+        verify(employeeService, never()).updateEmployee(any());
+    }
+
     //negative scenario - invalid employee id
     @DisplayName("JUnit test for updateEmployee() negative scenario")
     @Test
@@ -197,21 +465,198 @@ public class EmployeeControllerTests {
                 .andDo(print());
     }
 
+    @DisplayName("JUnit test for patchEmployee() positive scenario")
+    @Test
+    public void givenEmployeeIdAndPatch_whenPatchEmployee_thenReturn204() throws Exception {
+
+        //given - precondition or setup
+        long employeeId = 1L;
+        EmployeePatch patch = EmployeePatch.builder()
+                .firstName("Jane")
+                .version(0L)
+                .build();
+        //stub method employeeService.patchEmployee()
+        given(employeeService.patchEmployee(employeeId, patch)).willReturn(true);
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patch)));
+
+        //then - verify the output
+        response.andExpect(status().isNoContent())
+                .andDo(print());
+    }
+
+    @DisplayName("JUnit test for patchEmployee() with a stale version")
+    @Test
+    public void givenStaleVersion_whenPatchEmployee_thenReturn409() throws Exception {
+
+        //given - precondition or setup
+        long employeeId = 1L;
+        EmployeePatch patch = EmployeePatch.builder()
+                .firstName("Jane")
+                .version(0L)
+                .build();
+        //stub method employeeService.patchEmployee()
+        given(employeeService.patchEmployee(employeeId, patch))
+                .willThrow(new ObjectOptimisticLockingFailureException(Employee.class, employeeId));
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patch)));
+
+        //then - verify the output
+        response.andExpect(status().isConflict())
+                .andDo(print());
+    }
+
+    @DisplayName("JUnit test for patchEmployee() without a version")
+    @Test
+    public void givenPatchWithoutVersion_whenPatchEmployee_thenReturn400() throws Exception {
+
+        //given - precondition or setup
+        EmployeePatch patch = EmployeePatch.builder()
+                .firstName("Jane")
+                .build();
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(patch)));
+
+        //then - verify the output
+        response.andExpect(status().isBadRequest())
+                .andDo(print());
+    }
+
     @DisplayName("JUnit test for deleteEmployee")
     @Test
-    public void givenEmployeeId_whenDeleteEmployee_thenReturn200() throws Exception {
+    public void givenEmployeeId_whenDeleteEmployee_thenReturn204() throws Exception {
 
         //given - precondition or setup
         long employeeId = 1L;
 
-        //stub method employeeService.getEmployeeById()
-        willDoNothing().given(employeeService).deleteEmployee(employeeId);
+        //stub method employeeService.deleteEmployee()
+        given(employeeService.deleteEmployee(employeeId)).willReturn(true);
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", employeeId));
+
+        //then - verify the output
+        response.andExpect(status().isNoContent())
+                .andDo(print());
+    }
+
+    @DisplayName("JUnit test for deleteEmployee with If-Match")
+    @Test
+    public void givenIfMatch_whenDeleteEmployee_thenDeleteThatVersion() throws Exception {
+
+        //given - precondition or setup
+        long employeeId = 1L;
+
+        //stub method employeeService.deleteEmployee()
+        given(employeeService.deleteEmployee(employeeId, 3L)).willReturn(true);
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_MATCH, "W/\"3\""));
+
+        //then - verify the output
+        response.andExpect(status().isNoContent())
+                .andDo(print());
+        verify(employeeService, never()).deleteEmployee(employeeId);
+    }
+
+    @DisplayName("JUnit test for deleteEmployee with a stale If-Match")
+    @Test
+    public void givenStaleIfMatch_whenDeleteEmployee_thenReturn412() throws Exception {
+
+        //given - precondition or setup
+        long employeeId = 1L;
+
+        //stub methods employeeService.deleteEmployee() and employeeService.getEmployeeVersion()
+        given(employeeService.deleteEmployee(employeeId, 2L)).willReturn(false);
+        given(employeeService.getEmployeeVersion(employeeId)).willReturn(Optional.of(3L));
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_MATCH, "\"2\""));
+
+        //then - verify the output
+        response.andExpect(status().isPreconditionFailed())
+                .andDo(print());
+    }
+
+    @DisplayName("JUnit test for deleteEmployee negative scenario")
+    @Test
+    public void givenUnknownEmployeeId_whenDeleteEmployee_thenReturn404() throws Exception {
+
+        //given - precondition or setup
+        long employeeId = 1L;
+
+        //stub method employeeService.deleteEmployee()
+        given(employeeService.deleteEmployee(employeeId)).willReturn(false);
 
         //when - action or behaviour that we are going to test
         ResultActions response = mockMvc.perform(delete("/api/employees/{id}", employeeId));
 
+        //then - verify the output
+        response.andExpect(status().isNotFound())
+                .andDo(print());
+    }
+
+    @DisplayName("JUnit test for deleteEmployees")
+    @Test
+    public void givenEmployeeIds_whenDeleteEmployees_thenReturnDeletedCount() throws Exception {
+
+        //given - precondition or setup
+        //stub method employeeService.deleteEmployees()
+        given(employeeService.deleteEmployees(List.of(1L, 2L, 3L))).willReturn(2);
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(delete("/api/employees").param("ids", "1,2,3"));
+
         //then - verify the output
         response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.deleted", is(2)));
+    }
+
+    @DisplayName("JUnit test for streamChanges resuming from Last-Event-ID")
+    @Test
+    public void givenLastEventId_whenStreamChanges_thenResumeAfterIt() throws Exception {
+
+        //given - precondition or setup
+        given(employeeChangeStream.subscribe(42L)).willReturn(new SseEmitter());
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", "42"));
+
+        //then - verify the output
+        response.andExpect(request().asyncStarted())
+                .andDo(print());
+        verify(employeeChangeStream).subscribe(42L);
+    }
+
+    @DisplayName("JUnit test for streamChanges with a malformed Last-Event-ID")
+    @Test
+    public void givenMalformedLastEventId_whenStreamChanges_thenReturn400() throws Exception {
+
+        //given - precondition or setup
+        String lastEventId = "latest";
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", lastEventId));
+
+        //then - verify the output
+        response.andExpect(status().isBadRequest())
                 .andDo(print());
+        verify(employeeChangeStream, never()).subscribe(any());
     }
 }
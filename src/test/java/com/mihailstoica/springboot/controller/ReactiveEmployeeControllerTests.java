@@ -0,0 +1,169 @@
+package com.mihailstoica.springboot.controller;
+
+import com.mihailstoica.springboot.model.ReactiveEmployee;
+import com.mihailstoica.springboot.service.ReactiveEmployeeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@WebFluxTest(controllers = ReactiveEmployeeController.class)
+@ActiveProfiles("reactive")
+public class ReactiveEmployeeControllerTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveEmployeeService employeeService;
+
+    @DisplayName("JUnit test for reactive createEmployee")
+    @Test
+    public void givenEmployeeObject_whenCreateEmployee_thenReturnSavedEmployee() {
+
+        //given - precondition or setup
+        ReactiveEmployee employee = ReactiveEmployee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("john.doe@xyz,xyz")
+                .build();
+        //stub method employeeService.saveEmployee()
+        given(employeeService.saveEmployee(any(ReactiveEmployee.class)))
+                .willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        //when - action or behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.post().uri("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employee)
+                .exchange();
+
+        //then - verify the output
+        response.expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo(employee.getFirstName())
+                .jsonPath("$.lastName").isEqualTo(employee.getLastName())
+                .jsonPath("$.email").isEqualTo(employee.getEmail());
+    }
+
+    @DisplayName("JUnit test for reactive getAllEmployees() streamed as NDJSON")
+    @Test
+    public void givenListOfEmployee_whenStreamAllEmployees_thenReturnEmployeesFlux() {
+
+        //given - precondition or setup
+        ReactiveEmployee employee = ReactiveEmployee.builder().id(1L).firstName("John").lastName("Doe")
+                .email("john.doe@xyz,xyz").build();
+        ReactiveEmployee employee1 = ReactiveEmployee.builder().id(2L).firstName("Jane").lastName("Doe")
+                .email("jane.doe@xyz,xyz").build();
+        //stub method employeeService.getAllEmployees()
+        given(employeeService.getAllEmployees()).willReturn(Flux.just(employee, employee1));
+
+        //when - action or behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange();
+
+        //then - verify the output
+        response.expectStatus().isOk()
+                .expectBodyList(ReactiveEmployee.class)
+                .value(list -> assertThat(list).containsExactly(employee, employee1));
+    }
+
+    //negative scenario - invalid employee id
+    @DisplayName("JUnit test for reactive getEmployeeById() negative scenario")
+    @Test
+    public void givenEmployeeId_whenGetEmployeeById_thenReturnEmpty() {
+
+        //given - precondition or setup
+        long employeeId = 1L;
+        //stub method employeeService.getEmployeeById()
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Mono.empty());
+
+        //when - action or behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees/{id}", employeeId)
+                .exchange();
+
+        //then - verify the output
+        response.expectStatus().isNotFound();
+    }
+
+    @DisplayName("JUnit test for reactive updateEmployee with a stale If-Match")
+    @Test
+    public void givenStaleETag_whenUpdateEmployee_thenReturn412() {
+
+        //given - precondition or setup
+        long employeeId = 1L;
+        ReactiveEmployee savedEmployee = ReactiveEmployee.builder()
+                .id(employeeId).firstName("John").lastName("Doe").email("john.doe@xyz,xyz").version(3L).build();
+        ReactiveEmployee updatedEmployee = savedEmployee.toBuilder().firstName("Jon").version(null).build();
+        //stub method employeeService.getEmployeeById()
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Mono.just(savedEmployee));
+
+        //when - action or behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.put().uri("/api/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(updatedEmployee)
+                .exchange();
+
+        //then - verify the output
+        response.expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        verify(employeeService, never()).updateEmployee(any());
+    }
+
+    @DisplayName("JUnit test for reactive updateEmployee with the version read by the client")
+    @Test
+    public void givenVersionInBody_whenUpdateEmployee_thenSaveAgainstThatVersion() {
+
+        //given - precondition or setup
+        long employeeId = 1L;
+        ReactiveEmployee savedEmployee = ReactiveEmployee.builder()
+                .id(employeeId).firstName("John").lastName("Doe").email("john.doe@xyz,xyz").version(3L).build();
+        ReactiveEmployee updatedEmployee = savedEmployee.toBuilder().firstName("Jon").version(2L).build();
+        //stub method employeeService.getEmployeeById() and employeeService.updateEmployee()
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Mono.just(savedEmployee));
+        given(employeeService.updateEmployee(any(ReactiveEmployee.class)))
+                .willReturn(Mono.error(new OptimisticLockingFailureException("stale")));
+
+        //when - action or behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.put().uri("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(updatedEmployee)
+                .exchange();
+
+        //then - verify the output
+        response.expectStatus().isEqualTo(HttpStatus.CONFLICT);
+        verify(employeeService).updateEmployee(updatedEmployee);
+    }
+
+    @DisplayName("JUnit test for reactive deleteEmployee")
+    @Test
+    public void givenEmployeeId_whenDeleteEmployee_thenReturn204() {
+
+        //given - precondition or setup
+        long employeeId = 1L;
+        //stub method employeeService.deleteEmployee()
+        given(employeeService.deleteEmployee(employeeId)).willReturn(Mono.just(true));
+
+        //when - action or behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.delete().uri("/api/employees/{id}", employeeId)
+                .exchange();
+
+        //then - verify the output
+        response.expectStatus().isNoContent();
+    }
+}
@@ -10,15 +10,20 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.List;
 
+import static com.mihailstoica.springboot.integration.SqlStatementResultMatchers.sqlStatements;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -63,6 +68,7 @@ public class EmployeeControllerITests {
         //then - verify the output
         response.andDo(print())
                 .andExpect(status().isCreated())
+                .andExpect(sqlStatements().count(3))
                 .andExpect(jsonPath("$.firstName", is(employee.getFirstName())))
                 .andExpect(jsonPath("$.lastName", is(employee.getLastName())))
                 .andExpect(jsonPath("$.email", is(employee.getEmail())));
@@ -85,7 +91,9 @@ public class EmployeeControllerITests {
         //then - verify the output
         response.andExpect((status().isOk()))
                 .andDo(print())
-                .andExpect(jsonPath("$.size()", is(listOfEmployees.size())));
+                .andExpect(jsonPath("$.size()", is(listOfEmployees.size())))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(sqlStatements().count(2));
     }
 
     //positive scenario - valid employee id
@@ -109,11 +117,63 @@ public class EmployeeControllerITests {
         //then - verify the output
         response.andExpect(status().isOk())
                 .andDo(print())
+                .andExpect(sqlStatements().count(1))
                 .andExpect(jsonPath("$.firstName", is(employee.getFirstName())))
                 .andExpect(jsonPath("$.lastName", is(employee.getLastName())))
                 .andExpect(jsonPath("$.email", is(employee.getEmail())));
     }
 
+    @DisplayName("JUnit test for getEmployeeById() with a current ETag")
+    @Test
+    public void givenCurrentETag_whenGetEmployeeById_thenReturn304() throws Exception {
+
+        //given - precondition or setup
+        Employee savedEmployee = employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("john.doe@xyz,xyz")
+                .build());
+        String etag = mockMvc.perform(get("/api/employees/{id}", savedEmployee.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", savedEmployee.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, etag));
+
+        //then - verify the output
+        response.andExpect(status().isNotModified())
+                .andDo(print())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""))
+                .andExpect(sqlStatements().atMost(1));
+    }
+
+    @DisplayName("JUnit test for getAllEmployees() with a current ETag")
+    @Test
+    public void givenCurrentETag_whenGetAllEmployees_thenReturn304UntilWrite() throws Exception {
+
+        //given - precondition or setup
+        String etag = mockMvc.perform(get("/api/employees"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //when - action or behaviour that we are going to test
+        ResultActions unchanged = mockMvc.perform(get("/api/employees").header(HttpHeaders.IF_NONE_MATCH, etag));
+        mockMvc.perform(post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Employee.builder()
+                        .firstName("John")
+                        .lastName("Doe")
+                        .email("john.doe@xyz,xyz")
+                        .build())));
+        ResultActions changed = mockMvc.perform(get("/api/employees").header(HttpHeaders.IF_NONE_MATCH, etag));
+
+        //then - verify the output
+        unchanged.andExpect(status().isNotModified())
+                .andExpect(sqlStatements().count(1));
+        changed.andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)));
+    }
+
     //negative scenario - invalid employee id
     @DisplayName("JUnit test for getEmployeeById() negative scenario")
     @Test
@@ -166,6 +226,7 @@ public class EmployeeControllerITests {
         //then - verify the output
         response.andExpect(status().isOk())
                 .andDo(print())
+                .andExpect(sqlStatements().count(5))
                 .andExpect(jsonPath("$.firstName", is(updatedEmployee.getFirstName())))
                 .andExpect(jsonPath("$.lastName", is(updatedEmployee.getLastName())))
                 .andExpect(jsonPath("$.email", is(updatedEmployee.getEmail())));
@@ -194,9 +255,30 @@ public class EmployeeControllerITests {
                 .andDo(print());
     }
 
+    @DisplayName("JUnit test for deleteEmployee() with a stale ETag")
+    @Test
+    public void givenStaleETag_whenDeleteEmployee_thenReturn412() throws Exception {
+
+        //given - precondition or setup
+        Employee savedEmployee = employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("john.doe@xyz,xyz")
+                .build());
+
+        //when - action or behaviour that we are going to test
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", savedEmployee.getId())
+                .header(HttpHeaders.IF_MATCH, "\"" + (savedEmployee.getVersion() + 1) + "\""));
+
+        //then - verify the output
+        response.andExpect(status().isPreconditionFailed())
+                .andDo(print());
+        assertThat(employeeRepository.existsById(savedEmployee.getId())).isTrue();
+    }
+
     @DisplayName("JUnit test for deleteEmployee")
     @Test
-    public void givenEmployeeId_whenDeleteEmployee_thenReturn200() throws Exception {
+    public void givenEmployeeId_whenDeleteEmployee_thenReturn204() throws Exception {
 
         //given - precondition or setup
         Employee employee = Employee.builder()
@@ -211,8 +293,9 @@ public class EmployeeControllerITests {
         ResultActions response = mockMvc.perform(delete("/api/employees/{id}", savedEmployee.getId()));
 
         //then - verify the output
-        response.andExpect(status().isOk())
-                .andDo(print());
+        response.andExpect(status().isNoContent())
+                .andDo(print())
+                .andExpect(sqlStatements().count(3));
     }
 
 }
@@ -0,0 +1,95 @@
+package com.mihailstoica.springboot.integration;
+
+import com.mihailstoica.springboot.repository.EmployeeRepository;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs MySQL's EXPLAIN on the SQL of every {@link Query @Query} in {@link EmployeeRepository} and fails when a
+ * filtered query would scan the whole table (access type ALL). Queries without a WHERE clause, such as the export
+ * stream, read the whole table by design and are only required to explain successfully.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class EmployeeRepositoryExplainITests {
+
+    private static final Pattern NATIVE_PARAMETER = Pattern.compile("\\?\\d+|:\\w+");
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DisplayName("JUnit test for EXPLAIN of every EmployeeRepository @Query")
+    @Test
+    public void givenRepositoryQueries_whenExplain_thenNoFullTableScan() {
+
+        //given - precondition or setup
+        List<Method> queryMethods = new ArrayList<>();
+        for (Method method : EmployeeRepository.class.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(Query.class)) {
+                queryMethods.add(method);
+            }
+        }
+
+        //when - action or behaviour that we are going to test
+        List<String> fullTableScans = new ArrayList<>();
+        for (Method method : queryMethods) {
+            String sql = sql(method.getAnnotation(Query.class));
+            List<String> accessTypes = explain(sql);
+            if (sql.toLowerCase(Locale.ROOT).contains(" where ") && accessTypes.contains("ALL")) {
+                fullTableScans.add(method.getName() + ": " + sql);
+            }
+        }
+
+        //then - verify the output
+        assertThat(queryMethods).isNotEmpty();
+        assertThat(fullTableScans).isEmpty();
+    }
+
+    /**
+     * The SQL the query runs, JPQL being translated by Hibernate, with every parameter as a JDBC placeholder
+     */
+    private String sql(Query query) {
+
+        if (query.nativeQuery()) {
+            return NATIVE_PARAMETER.matcher(query.value()).replaceAll("?");
+        }
+        return entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getQueryPlanCache()
+                .getHQLQueryPlan(query.value(), false, Collections.emptyMap())
+                .getSqlStrings()[0];
+    }
+
+    /**
+     * The access type of every table in the plan, binding a dummy value to each placeholder
+     */
+    private List<String> explain(String sql) {
+
+        int parameters = sql.length() - sql.replace("?", "").length();
+        return jdbcTemplate.query("explain " + sql,
+                statement -> {
+                    for (int i = 1; i <= parameters; i++) {
+                        statement.setString(i, "1");
+                    }
+                },
+                (resultSet, rowNum) -> String.valueOf(resultSet.getString("type")));
+    }
+}
@@ -47,6 +47,26 @@ public class EmployeeRepositoryITests {
 
     }
 
+    //JUnit test for upsert employee operation, native INSERT ... ON DUPLICATE KEY UPDATE
+    @DisplayName("JUnit test for upsert employee operation")
+    @Test
+    public void givenExistingEmail_whenUpsert_thenUpdateExistingEmployee() {
+
+        //given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .firstName("Jon")
+                .lastName("Doe")
+                .email(employee.getEmail())
+                .build();
+
+        //when - action or behaviour that we are going to test
+        int affectedRows = employeeRepository.upsert(employee1);
+
+        //then - verify the output
+        assertThat(affectedRows).isEqualTo(2);
+        assertThat(employeeRepository.count()).isEqualTo(1);
+    }
+
     //JUnit test for get all employees operation
     @DisplayName("JUnit test for get all employees operation")
     @Test
@@ -0,0 +1,81 @@
+package com.mihailstoica.springboot.integration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class EmployeeSchemaMigrationITests {
+
+    private DriverManagerDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setup() {
+        this.dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:migration-" + System.nanoTime() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    //JUnit test for the migrations on a database created by hibernate.ddl-auto=update
+    @DisplayName("JUnit test for the migrations on a database created by hibernate.ddl-auto=update")
+    @Test
+    public void givenDdlAutoUpdateSchema_whenMigrate_thenAddVersionAndUniqueEmail() {
+
+        //given - precondition or setup
+        jdbcTemplate.execute("create table employees (id bigint not null auto_increment, email varchar(255) not null,"
+                + " first_name varchar(255) not null, last_name varchar(255) not null, primary key (id))");
+        jdbcTemplate.update("insert into employees (email, first_name, last_name) values ('john.doe@xyz,com', 'John',"
+                + " 'Doe')");
+
+        //when - action or behaviour that we are going to test
+        flyway().migrate();
+
+        //then - verify the output
+        assertThat(jdbcTemplate.queryForObject("select version from employees where email = 'john.doe@xyz,com'",
+                Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("select next_val from employees_seq", Long.class)).isEqualTo(2);
+        assertThatThrownBy(() -> jdbcTemplate.update("insert into employees (id, email, first_name, last_name)"
+                + " values (2, 'john.doe@xyz,com', 'Jon', 'Doe')"))
+                .isInstanceOf(DuplicateKeyException.class)
+                .hasMessageContaining("uk_employees_email");
+    }
+
+    //JUnit test for the migrations on an empty database, the adoption migration changes nothing
+    @DisplayName("JUnit test for the migrations on an empty database")
+    @Test
+    public void givenEmptyDatabase_whenMigrate_thenCreateSchemaOnce() {
+
+        //given - precondition or setup
+
+        //when - action or behaviour that we are going to test
+        flyway().migrate();
+
+        //then - verify the output
+        assertThat(jdbcTemplate.queryForObject("select count(*) from information_schema.indexes"
+                + " where table_name = 'employees' and lower(index_name) like '%uk_employees_email%'", Integer.class))
+                .isEqualTo(1);
+        assertThat(flyway().info().pending()).isEmpty();
+    }
+
+    /**
+     * Configured like spring.flyway.* in application.properties
+     */
+    private Flyway flyway() {
+
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration", "classpath:com/mihailstoica/springboot/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load();
+    }
+}
@@ -0,0 +1,46 @@
+package com.mihailstoica.springboot.integration;
+
+import com.mihailstoica.springboot.config.SqlStatementFilter;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Assertions on the SQL statements a request ran, as reported by {@link SqlStatementFilter}.
+ * Pin the exact count of each endpoint so an extra query fails the build:
+ * <pre>
+ * mockMvc.perform(get("/api/employees/{id}", id))
+ *         .andExpect(sqlStatements().count(1));
+ * </pre>
+ */
+public final class SqlStatementResultMatchers {
+
+    private SqlStatementResultMatchers() {
+    }
+
+    public static SqlStatementResultMatchers sqlStatements() {
+        return new SqlStatementResultMatchers();
+    }
+
+    public ResultMatcher count(int expected) {
+
+        return result -> assertThat(statements(result.getResponse().getHeader(SqlStatementFilter.STATEMENTS_HEADER)))
+                .as("SQL statements run by %s %s", result.getRequest().getMethod(),
+                        result.getRequest().getRequestURI())
+                .isEqualTo(expected);
+    }
+
+    public ResultMatcher atMost(int max) {
+
+        return result -> assertThat(statements(result.getResponse().getHeader(SqlStatementFilter.STATEMENTS_HEADER)))
+                .as("SQL statements run by %s %s", result.getRequest().getMethod(),
+                        result.getRequest().getRequestURI())
+                .isLessThanOrEqualTo(max);
+    }
+
+    private static int statements(String header) {
+
+        assertThat(header).as(SqlStatementFilter.STATEMENTS_HEADER + " header").isNotNull();
+        return Integer.parseInt(header);
+    }
+}
@@ -0,0 +1,306 @@
+package com.mihailstoica.springboot.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.repository.EmployeeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Open-model load test of the full HTTP stack against an in-process H2 database in MySQL mode.
+ * Requests are issued on a fixed schedule and each latency is measured from the time the request
+ * was due, not from when it was actually sent, so a stalled server cannot hide its queueing delay
+ * (coordinated omission).
+ * <p>
+ * Run with {@code mvn test -Dtest.excludedGroups= -Dgroups=load} and tune with system properties:
+ * load.rate (requests/s), load.duration and load.warmup (seconds),
+ * load.mix (e.g. create=10,read=60,update=10,delete=5,list=15),
+ * load.budget.p99 and load.budget.p999 (milliseconds, the run fails when exceeded).
+ * Reads, updates and deletes race each other on random ids, so 4xx answers are expected; only transport
+ * failures and 5xx answers count as errors.
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:load;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.show-sql=false",
+        //measures the server itself, one client at the configured rate would be throttled
+        "app.admission.enabled=false"
+})
+public class EmployeeApiLoadTests {
+
+    private static final int RATE = Integer.getInteger("load.rate", 500);
+
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.duration", 30));
+
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("load.warmup", 5));
+
+    private static final String MIX = System.getProperty("load.mix", "create=10,read=60,update=10,delete=5,list=15");
+
+    private static final long BUDGET_P99_MILLIS = Long.getLong("load.budget.p99", 50);
+
+    private static final long BUDGET_P999_MILLIS = Long.getLong("load.budget.p999", 200);
+
+    private static final int SEED_EMPLOYEES = 1000;
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    enum Operation {
+        CREATE, READ, UPDATE, DELETE, LIST
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<Long> employeeIds = Collections.synchronizedList(new ArrayList<>());
+
+    private final AtomicLong emails = new AtomicLong();
+
+    private HttpClient client;
+
+    private URI baseUri;
+
+    @BeforeEach
+    void setup() {
+
+        employeeRepository.deleteAll();
+        employeeRepository.saveAll(IntStream.range(0, SEED_EMPLOYEES)
+                        .mapToObj(i -> employee())
+                        .collect(Collectors.toList()))
+                .forEach(employee -> employeeIds.add(employee.getId()));
+        client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        baseUri = URI.create("http://localhost:" + port + "/api/employees");
+    }
+
+    @DisplayName("Load test of the employee API at a fixed arrival rate")
+    @Test
+    public void givenFixedArrivalRate_whenDrivingTrafficMix_thenLatencyStaysWithinBudget() throws Exception {
+
+        //given - precondition or setup
+        Operation[] schedule = schedule(parseMix(MIX));
+
+        //when - action or behaviour that we are going to test
+        run(schedule, WARMUP, null);
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3));
+            errors.put(operation, new AtomicLong());
+        }
+        long elapsedNanos = run(schedule, DURATION, new Recording(histograms, errors));
+
+        //then - verify the output
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        histograms.values().forEach(total::add);
+        log.info(String.format("%-8s %10s %8s %10s %10s %10s %10s", "op", "count", "errors", "p50 ms", "p99 ms",
+                "p999 ms", "max ms"));
+        histograms.forEach((operation, histogram) -> print(operation.name(), histogram, errors.get(operation).get()));
+        long totalErrors = errors.values().stream().mapToLong(AtomicLong::get).sum();
+        print("TOTAL", total, totalErrors);
+        log.info(String.format("throughput: %.1f requests/s (target %d)",
+                total.getTotalCount() / (elapsedNanos / 1e9), RATE));
+
+        assertThat(totalErrors).isZero();
+        assertThat(millis(total.getValueAtPercentile(99.0))).isLessThanOrEqualTo(BUDGET_P99_MILLIS);
+        assertThat(millis(total.getValueAtPercentile(99.9))).isLessThanOrEqualTo(BUDGET_P999_MILLIS);
+    }
+
+    /**
+     * Issues one request every 1/RATE seconds, whatever the state of earlier requests, and waits for all of them
+     *
+     * @return the time from the first scheduled request to the last completion
+     */
+    private long run(Operation[] schedule, Duration duration, Recording recording) {
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / RATE;
+        long requests = duration.toNanos() / intervalNanos;
+        List<CompletableFuture<Void>> inFlight = new ArrayList<>();
+        long start = System.nanoTime();
+        for (long i = 0; i < requests; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long delay = intendedStart - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            Operation operation = schedule[(int) (i % schedule.length)];
+            inFlight.add(send(operation).handle((status, failure) -> {
+                if (recording != null) {
+                    recording.record(operation, System.nanoTime() - intendedStart, failure == null && status < 500);
+                }
+                return null;
+            }));
+        }
+        CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0])).join();
+        return System.nanoTime() - start;
+    }
+
+    private CompletableFuture<Integer> send(Operation operation) {
+
+        switch (operation) {
+            case CREATE:
+                return client.sendAsync(json(HttpRequest.newBuilder(baseUri), "POST", employee()),
+                                HttpResponse.BodyHandlers.ofString())
+                        .thenApply(response -> {
+                            if (response.statusCode() == 201) {
+                                employeeIds.add(readId(response.body()));
+                            }
+                            return response.statusCode();
+                        });
+            case READ:
+                return status(HttpRequest.newBuilder(uri(randomId())).GET().build());
+            case UPDATE:
+                return status(json(HttpRequest.newBuilder(uri(randomId())), "PUT", employee()));
+            case DELETE:
+                return status(HttpRequest.newBuilder(uri(takeId())).DELETE().build());
+            case LIST:
+                return status(HttpRequest.newBuilder(URI.create(baseUri + "?limit=20")).GET().build());
+            default:
+                throw new IllegalArgumentException(operation.name());
+        }
+    }
+
+    private CompletableFuture<Integer> status(HttpRequest request) {
+
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenApply(HttpResponse::statusCode);
+    }
+
+    private HttpRequest json(HttpRequest.Builder request, String method, Employee employee) {
+
+        try {
+            return request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(employee)))
+                    .build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Employee employee() {
+
+        long n = emails.incrementAndGet();
+        return Employee.builder()
+                .firstName("John" + n)
+                .lastName("Doe")
+                .email("john.doe" + n + "@xyz.xyz")
+                .build();
+    }
+
+    private long readId(String body) {
+
+        try {
+            return objectMapper.readTree(body).get("id").asLong();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long randomId() {
+
+        synchronized (employeeIds) {
+            return employeeIds.isEmpty() ? 0L : employeeIds.get(ThreadLocalRandom.current().nextInt(employeeIds.size()));
+        }
+    }
+
+    private long takeId() {
+
+        synchronized (employeeIds) {
+            return employeeIds.isEmpty() ? 0L
+                    : employeeIds.remove(ThreadLocalRandom.current().nextInt(employeeIds.size()));
+        }
+    }
+
+    private URI uri(long id) {
+
+        return URI.create(baseUri + "/" + id);
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] weight = entry.split("=");
+            weights.put(Operation.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+        }
+        return weights;
+    }
+
+    /**
+     * Spreads the weighted operations over a shuffled cycle that the run walks through
+     */
+    private static Operation[] schedule(Map<Operation, Integer> weights) {
+
+        List<Operation> schedule = new ArrayList<>();
+        weights.forEach((operation, weight) -> schedule.addAll(Collections.nCopies(weight, operation)));
+        Collections.shuffle(schedule);
+        return schedule.toArray(new Operation[0]);
+    }
+
+    private static void print(String name, Histogram histogram, long errors) {
+
+        log.info(String.format("%-8s %10d %8d %10.2f %10.2f %10.2f %10.2f", name, histogram.getTotalCount(), errors,
+                histogram.getValueAtPercentile(50.0) / 1e6, histogram.getValueAtPercentile(99.0) / 1e6,
+                histogram.getValueAtPercentile(99.9) / 1e6, histogram.getMaxValue() / 1e6));
+    }
+
+    private static long millis(long nanos) {
+
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static final class Recording {
+
+        private final Map<Operation, Histogram> histograms;
+
+        private final Map<Operation, AtomicLong> errors;
+
+        private Recording(Map<Operation, Histogram> histograms, Map<Operation, AtomicLong> errors) {
+            this.histograms = histograms;
+            this.errors = errors;
+        }
+
+        void record(Operation operation, long latencyNanos, boolean success) {
+            histograms.get(operation).recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+            if (!success) {
+                errors.get(operation).incrementAndGet();
+            }
+        }
+    }
+}
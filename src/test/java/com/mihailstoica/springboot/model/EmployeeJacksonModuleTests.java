@@ -0,0 +1,106 @@
+package com.mihailstoica.springboot.model;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link EmployeeJacksonModule} against the reflective bean (de)serialization it replaces, both mappers being
+ * configured like Spring Boot's
+ */
+public class EmployeeJacksonModuleTests {
+
+    private static final TypeReference<List<Employee>> EMPLOYEE_LIST = new TypeReference<>() {
+    };
+
+    private ObjectMapper reflectiveMapper;
+
+    private ObjectMapper moduleMapper;
+
+    private List<Employee> employees;
+
+    @BeforeEach
+    public void setup() {
+        reflectiveMapper = Jackson2ObjectMapperBuilder.json().build();
+        moduleMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new EmployeeJacksonModule()).build();
+        employees = List.of(
+                Employee.builder().id(1L).firstName("John").lastName("Doe").email("john.doe@xyz,xyz").version(3L)
+                        .build(),
+                Employee.builder().id(Long.MAX_VALUE).firstName("Zoë \"Z\"").lastName("Ñúñez\t\\")
+                        .email("zoe @xyz,xyz").build(),
+                Employee.builder().id(-1L).build());
+    }
+
+    @DisplayName("JUnit test for serializing employees with EmployeeJacksonModule")
+    @Test
+    public void givenEmployees_whenSerialize_thenSameBytesAsReflective() throws Exception {
+
+        //given - precondition or setup
+
+        //when - action or behaviour that we are going to test
+        byte[] list = moduleMapper.writeValueAsBytes(employees);
+        byte[] single = moduleMapper.writeValueAsBytes(employees.get(1));
+
+        //then - verify the output
+        assertThat(list).isEqualTo(reflectiveMapper.writeValueAsBytes(employees));
+        assertThat(single).isEqualTo(reflectiveMapper.writeValueAsBytes(employees.get(1)));
+        assertThat(moduleMapper.writerFor(EMPLOYEE_LIST).writeValueAsString(employees))
+                .isEqualTo(reflectiveMapper.writerFor(EMPLOYEE_LIST).writeValueAsString(employees));
+    }
+
+    @DisplayName("JUnit test for serializing employees as CBOR with EmployeeJacksonModule")
+    @Test
+    public void givenEmployees_whenSerializeCbor_thenSameBytesAsReflective() throws Exception {
+
+        //given - precondition or setup
+        ObjectMapper reflectiveCborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+        ObjectMapper moduleCborMapper = Jackson2ObjectMapperBuilder.cbor()
+                .modulesToInstall(new EmployeeJacksonModule()).build();
+
+        //when - action or behaviour that we are going to test
+        byte[] list = moduleCborMapper.writeValueAsBytes(employees);
+
+        //then - verify the output
+        assertThat(list).isEqualTo(reflectiveCborMapper.writeValueAsBytes(employees));
+    }
+
+    @DisplayName("JUnit test for deserializing employees with EmployeeJacksonModule")
+    @Test
+    public void givenJson_whenDeserialize_thenSameEmployeesAsReflective() throws Exception {
+
+        //given - precondition or setup
+        String json = "[{\"id\":1,\"firstName\":\"John\",\"lastName\":\"Doe\","
+                + "\"email\":\"john.doe@xyz,xyz\",\"version\":3},"
+                + "{\"email\":\"jane.doe@xyz,xyz\",\"unknown\":{\"nested\":[1,2]},\"firstName\":null,\"id\":\"7\"},"
+                + "{}]";
+
+        //when - action or behaviour that we are going to test
+        List<Employee> deserialized = moduleMapper.readValue(json, EMPLOYEE_LIST);
+
+        //then - verify the output
+        assertThat(deserialized).isEqualTo(reflectiveMapper.readValue(json, EMPLOYEE_LIST));
+        assertThat(deserialized.get(1).getId()).isEqualTo(7L);
+    }
+
+    @DisplayName("JUnit test for a serialization round trip with EmployeeJacksonModule")
+    @Test
+    public void givenEmployees_whenRoundTrip_thenEqualEmployees() throws Exception {
+
+        //given - precondition or setup
+        byte[] json = moduleMapper.writeValueAsBytes(employees);
+
+        //when - action or behaviour that we are going to test
+        Employee[] deserialized = moduleMapper.readValue(json, Employee[].class);
+
+        //then - verify the output
+        assertThat(Arrays.asList(deserialized)).isEqualTo(employees);
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -67,6 +68,29 @@ public class EmployeeRepositoryTests {
         assertThat(employee1).isEqualTo(employeeList.get(1));
     }
 
+    //JUnit test for keyset pagination
+    @DisplayName("JUnit test for keyset pagination")
+    @Test
+    public void givenEmployeesList_whenFindByIdGreaterThan_thenReturnNextSliceOrderedById() {
+
+        //given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .firstName("Jane")
+                .lastName("Doe")
+                .email("jane.doe@xyz,com")
+                .build();
+        employeeRepository.save(employee1);
+
+        //when - action or behaviour that we are going to test
+        List<Employee> firstSlice = employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 1));
+        List<Employee> secondSlice = employeeRepository.findByIdGreaterThanOrderByIdAsc(firstSlice.get(0).getId(),
+                PageRequest.of(0, 1));
+
+        //then - verify the output
+        assertThat(firstSlice).containsExactly(employee);
+        assertThat(secondSlice).containsExactly(employee1);
+    }
+
     //JUnit test for get employee by id operation
     @DisplayName("JUnit test for get employee by id operation")
     @Test
@@ -197,5 +221,23 @@ public class EmployeeRepositoryTests {
         assertThat(savedEmployee).isEqualTo(employee);
     }
 
+    //JUnit test for the employees revision, every slot is a row and counts towards the sum
+    @DisplayName("JUnit test for the employees revision slots")
+    @Test
+    public void givenRevisionSlots_whenIncrementEachSlot_thenRevisionCountsEveryIncrement() {
 
+        //given - precondition or setup
+        long revision = employeeRepository.findEmployeesRevision();
+
+        //when - action or behaviour that we are going to test
+        int incrementedSlots = 0;
+        for (int slot = 1; slot <= EmployeeRepository.REVISION_SLOTS; slot++) {
+            incrementedSlots += employeeRepository.incrementEmployeesRevision(slot);
+        }
+
+        //then - verify the output
+        assertThat(incrementedSlots).isEqualTo(EmployeeRepository.REVISION_SLOTS);
+        assertThat(employeeRepository.findEmployeesRevision()).isEqualTo(revision + EmployeeRepository.REVISION_SLOTS);
+        assertThat(employeeRepository.incrementEmployeesRevision(EmployeeRepository.REVISION_SLOTS + 1)).isZero();
+    }
 }
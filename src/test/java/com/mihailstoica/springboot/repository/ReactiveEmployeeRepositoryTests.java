@@ -0,0 +1,138 @@
+package com.mihailstoica.springboot.repository;
+
+import com.mihailstoica.springboot.model.ReactiveEmployee;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+@DataR2dbcTest
+@ActiveProfiles("reactive")
+public class ReactiveEmployeeRepositoryTests {
+
+    @Autowired
+    private ReactiveEmployeeRepository employeeRepository;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    private ReactiveEmployee employee;
+
+    @BeforeEach
+    public void setup() {
+        new ResourceDatabasePopulator(new ClassPathResource("db/reactive/schema.sql"))
+                .populate(connectionFactory)
+                .block();
+        employeeRepository.deleteAll().block();
+        this.employee = employeeRepository.save(ReactiveEmployee.builder()
+                .id(1L)
+                .firstName("John")
+                .lastName("Doe")
+                .email("john.doe@xyz,com")
+                .build()).block();
+    }
+
+    //JUnit test for save employee operation
+    @DisplayName("JUnit test for reactive save employee operation")
+    @Test
+    public void givenEmployeeObject_whenSave_thenReturnSavedEmployee() {
+
+        //given - precondition or setup
+
+        //when - action or behaviour that we are going to test
+
+        //then - verify the output
+        StepVerifier.create(employeeRepository.findById(employee.getId()))
+                .expectNextMatches(savedEmployee -> savedEmployee.getVersion() == 0L)
+                .verifyComplete();
+    }
+
+    //JUnit test for get all employees operation
+    @DisplayName("JUnit test for reactive get all employees operation")
+    @Test
+    public void givenEmployeesList_whenFindAll_thenReturnEmployeesInIdOrder() {
+
+        //given - precondition or setup
+        ReactiveEmployee employee1 = employeeRepository.save(ReactiveEmployee.builder()
+                .id(2L)
+                .firstName("Jane")
+                .lastName("Doe")
+                .email("jane.doe@xyz,com")
+                .build()).block();
+
+        //when - action or behaviour that we are going to test
+
+        //then - verify the output
+        StepVerifier.create(employeeRepository.findAllByOrderByIdAsc())
+                .expectNext(employee, employee1)
+                .verifyComplete();
+    }
+
+    //JUnit test for get employee by first and last name, custom query with named parameters
+    @DisplayName("JUnit test for reactive get employee by first and last name")
+    @Test
+    public void givenFirsNameAndLastName_whenFindByFirstNameAndLastName_thenReturnEmployeeObject() {
+
+        //given - precondition or setup
+
+        //when - action or behaviour that we are going to test
+
+        //then - verify the output
+        StepVerifier.create(employeeRepository.findByFirstNameAndLastName("John", "Doe"))
+                .expectNext(employee)
+                .verifyComplete();
+    }
+
+    //JUnit test for get employee by first name, last name and email, custom query with named parameters
+    @DisplayName("JUnit test for reactive get employee by first name, last name and email")
+    @Test
+    public void givenFirstNameAndLastNameAndEmail_whenFindByFirstNameAndLastNameAndEmail_thenReturnEmployeeObject() {
+
+        //given - precondition or setup
+
+        //when - action or behaviour that we are going to test
+
+        //then - verify the output
+        StepVerifier.create(employeeRepository.findByFirstNameAndLastNameAndEmail(employee.getFirstName(),
+                        employee.getLastName(), employee.getEmail()))
+                .expectNext(employee)
+                .verifyComplete();
+    }
+
+    //JUnit test for reserving ids from employees_seq, the table the JPA generator draws from too
+    @DisplayName("JUnit test for reactive id reservation from employees_seq")
+    @Test
+    public void givenEmployeesSeq_whenIncrementNextId_thenReturnNextIdMovedByIncrement() {
+
+        //given - precondition or setup
+        long nextId = employeeRepository.findNextId().block();
+
+        //when - action or behaviour that we are going to test
+
+        //then - verify the output
+        StepVerifier.create(employeeRepository.incrementNextId(50).then(employeeRepository.findNextId()))
+                .expectNext(nextId + 50)
+                .verifyComplete();
+    }
+
+    //JUnit test for delete employee
+    @DisplayName("JUnit test for reactive delete employee")
+    @Test
+    public void givenEmployeeObject_whenDeleteEmployeeById_thenReturnDeletedRows() {
+
+        //given - precondition or setup
+
+        //when - action or behaviour that we are going to test
+
+        //then - verify the output
+        StepVerifier.create(employeeRepository.deleteEmployeeById(employee.getId()))
+                .expectNext(1)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,216 @@
+package com.mihailstoica.springboot.service;
+
+import com.mihailstoica.springboot.config.EmployeeCacheProperties;
+import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.service.impl.CachingEmployeeService;
+import com.mihailstoica.springboot.service.impl.EmployeeServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingEmployeeServiceTests {
+
+    @Mock
+    private EmployeeServiceImpl employeeServiceImpl;
+
+    private MeterRegistry meterRegistry;
+
+    private CachingEmployeeService employeeService;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.employeeService = new CachingEmployeeService(employeeServiceImpl, new EmployeeCacheProperties(),
+                meterRegistry);
+        this.employee = Employee.builder()
+                .id(1L)
+                .firstName("Jane")
+                .lastName("Doe")
+                .email("jane.doe@xyz,com")
+                .build();
+    }
+
+    //JUnit test for getEmployeeById method, cache hit
+    @DisplayName("JUnit test for getEmployeeById method, cache hit")
+    @Test
+    public void givenCachedEmployee_whenGetEmployeeById_thenLoadOnlyOnce() {
+
+        //given - precondition or setup
+        given(employeeServiceImpl.getEmployeeById(1L)).willReturn(Optional.of(employee));
+
+        //when - action or behaviour that we are going to test
+        Employee firstEmployee = employeeService.getEmployeeById(1L).orElseThrow();
+        firstEmployee.setFirstName("Changed");
+        Employee secondEmployee = employeeService.getEmployeeById(1L).orElseThrow();
+
+        //then - verify the output
+        verify(employeeServiceImpl, times(1)).getEmployeeById(1L);
+        assertThat(secondEmployee.getFirstName()).isEqualTo("Jane");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "employees").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    //JUnit test for getEmployeeById method, negative caching
+    @DisplayName("JUnit test for getEmployeeById method, negative caching")
+    @Test
+    public void givenUnknownId_whenGetEmployeeById_thenLoadOnlyOnce() {
+
+        //given - precondition or setup
+        given(employeeServiceImpl.getEmployeeById(2L)).willReturn(Optional.empty());
+
+        //when - action or behaviour that we are going to test
+        employeeService.getEmployeeById(2L);
+        Optional<Employee> missingEmployee = employeeService.getEmployeeById(2L);
+
+        //then - verify the output
+        assertThat(missingEmployee).isEmpty();
+        verify(employeeServiceImpl, times(1)).getEmployeeById(2L);
+    }
+
+    //JUnit test for deleteEmployee method evicting the cache
+    @DisplayName("JUnit test for deleteEmployee method evicting the cache")
+    @Test
+    public void givenCachedEmployee_whenDeleteEmployee_thenReloadOnNextGet() {
+
+        //given - precondition or setup
+        given(employeeServiceImpl.getEmployeeById(1L)).willReturn(Optional.of(employee));
+        employeeService.getEmployeeById(1L);
+
+        //when - action or behaviour that we are going to test
+        employeeService.deleteEmployee(1L);
+        employeeService.getEmployeeById(1L);
+
+        //then - verify the output
+        verify(employeeServiceImpl, times(2)).getEmployeeById(1L);
+    }
+
+    //JUnit test for getEmployeeById method, concurrent misses share one load
+    @DisplayName("JUnit test for getEmployeeById method, concurrent misses share one load")
+    @Test
+    public void givenConcurrentMisses_whenGetEmployeeById_thenLoadOnlyOnce() throws InterruptedException {
+
+        //given - precondition or setup
+        AtomicReference<Object> followerOutcome = new AtomicReference<>();
+        Thread[] follower = new Thread[1];
+        given(employeeServiceImpl.getEmployeeById(1L)).willAnswer(invocation -> {
+            follower[0] = lookupInBackground(1L, followerOutcome);
+            awaitWaiting(follower[0]);
+            return Optional.of(employee);
+        });
+
+        //when - action or behaviour that we are going to test
+        Employee leaderEmployee = employeeService.getEmployeeById(1L).orElseThrow();
+        follower[0].join();
+
+        //then - verify the output
+        verify(employeeServiceImpl, times(1)).getEmployeeById(1L);
+        Employee followerEmployee = ((Optional<?>) followerOutcome.get()).map(Employee.class::cast).orElseThrow();
+        assertThat(followerEmployee).isEqualTo(leaderEmployee).isNotSameAs(leaderEmployee);
+        assertThat(meterRegistry.get("cache.coalesced").tag("cache", "employees").counter().count())
+                .isEqualTo(1);
+    }
+
+    //JUnit test for getEmployeeById method, the failure of a shared load reaches every caller
+    @DisplayName("JUnit test for getEmployeeById method, the failure of a shared load reaches every caller")
+    @Test
+    public void givenFailingLoad_whenGetEmployeeByIdConcurrently_thenThrowToEveryCaller() throws InterruptedException {
+
+        //given - precondition or setup
+        QueryTimeoutException failure = new QueryTimeoutException("timeout");
+        AtomicReference<Object> followerOutcome = new AtomicReference<>();
+        Thread[] follower = new Thread[1];
+        given(employeeServiceImpl.getEmployeeById(1L)).willAnswer(invocation -> {
+            follower[0] = lookupInBackground(1L, followerOutcome);
+            awaitWaiting(follower[0]);
+            throw failure;
+        });
+
+        //when - action or behaviour that we are going to test
+        //then - verify the output
+        assertThatThrownBy(() -> employeeService.getEmployeeById(1L)).isSameAs(failure);
+        follower[0].join();
+        assertThat(followerOutcome.get()).isSameAs(failure);
+    }
+
+    //JUnit test for getEmployeeById method, a load failing with an Error is not left in flight
+    @DisplayName("JUnit test for getEmployeeById method, a load failing with an Error is not left in flight")
+    @Test
+    public void givenLoadFailingWithError_whenGetEmployeeById_thenNextLookupLoadsAgain() {
+
+        //given - precondition or setup
+        StackOverflowError failure = new StackOverflowError();
+        given(employeeServiceImpl.getEmployeeById(1L)).willThrow(failure).willReturn(Optional.of(employee));
+        assertThatThrownBy(() -> employeeService.getEmployeeById(1L)).isSameAs(failure);
+
+        //when - action or behaviour that we are going to test
+        Optional<Employee> reloadedEmployee = employeeService.getEmployeeById(1L);
+
+        //then - verify the output
+        assertThat(reloadedEmployee).contains(employee);
+        verify(employeeServiceImpl, times(2)).getEmployeeById(1L);
+    }
+
+    //JUnit test for getEmployeeById method, a load overtaken by a write is not cached
+    @DisplayName("JUnit test for getEmployeeById method, a load overtaken by a write is not cached")
+    @Test
+    public void givenEvictionDuringLoad_whenGetEmployeeById_thenReloadOnNextGet() {
+
+        //given - precondition or setup
+        given(employeeServiceImpl.getEmployeeById(1L)).willAnswer(invocation -> {
+            employeeService.deleteEmployee(1L);
+            return Optional.of(employee);
+        }).willReturn(Optional.empty());
+
+        //when - action or behaviour that we are going to test
+        employeeService.getEmployeeById(1L);
+        Optional<Employee> reloadedEmployee = employeeService.getEmployeeById(1L);
+
+        //then - verify the output
+        assertThat(reloadedEmployee).isEmpty();
+        verify(employeeServiceImpl, times(2)).getEmployeeById(1L);
+    }
+
+    private Thread lookupInBackground(long id, AtomicReference<Object> outcome) {
+
+        Thread thread = new Thread(() -> {
+            try {
+                outcome.set(employeeService.getEmployeeById(id));
+            } catch (RuntimeException e) {
+                outcome.set(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Returns once the thread waits for the load in progress
+     */
+    private static void awaitWaiting(Thread thread) {
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.TIMED_WAITING) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.mihailstoica.springboot.service;
+
+import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.model.EmployeeChangedEvent;
+import com.mihailstoica.springboot.model.EmployeePatch;
+import com.mihailstoica.springboot.model.EmployeeSearchHit;
+import com.mihailstoica.springboot.model.EmployeeSearchResult;
+import com.mihailstoica.springboot.service.impl.EmployeeSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeSearchIndexTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @BeforeEach
+    public void setup() {
+        this.employeeSearchIndex = new EmployeeSearchIndex(employeeService);
+    }
+
+    //JUnit test for search method ranking exact, prefix and infix matches
+    @DisplayName("JUnit test for search method ranking")
+    @Test
+    public void givenIndexedEmployees_whenSearch_thenRankExactPrefixInfix() {
+
+        //given - precondition or setup
+        load(employee(1L, "Ann", "Doe", "ann.doe@xyz,xyz"),
+                employee(2L, "Anna", "Smith", "anna.smith@xyz,xyz"),
+                employee(3L, "Joanna", "Brown", "jo.brown@xyz,xyz"),
+                employee(4L, "John", "Doe", "john.doe@xyz,xyz"));
+
+        //when - action or behaviour that we are going to test
+        EmployeeSearchResult result = employeeSearchIndex.search("ANN", 0, 10);
+
+        //then - verify the output
+        assertThat(result.getTotal()).isEqualTo(3);
+        assertThat(result.getHits())
+                .extracting(EmployeeSearchHit::getId, EmployeeSearchHit::getMatch)
+                .containsExactly(tuple(1L, EmployeeSearchHit.Match.EXACT),
+                        tuple(2L, EmployeeSearchHit.Match.PREFIX),
+                        tuple(3L, EmployeeSearchHit.Match.INFIX));
+    }
+
+    //JUnit test for search method with a query shorter than a trigram
+    @DisplayName("JUnit test for search method with a short query")
+    @Test
+    public void givenShortQuery_whenSearch_thenMatchPrefixesOnly() {
+
+        //given - precondition or setup
+        load(employee(1L, "John", "Doe", "john.doe@xyz,xyz"),
+                employee(2L, "Ajo", "Smith", "ajo.smith@xyz,xyz"));
+
+        //when - action or behaviour that we are going to test
+        EmployeeSearchResult result = employeeSearchIndex.search("jo", 0, 10);
+
+        //then - verify the output
+        assertThat(result.getHits()).extracting(EmployeeSearchHit::getId).containsExactly(1L);
+    }
+
+    //JUnit test for search method paging
+    @DisplayName("JUnit test for search method paging")
+    @Test
+    public void givenManyMatches_whenSearchSecondPage_thenReturnNextHits() {
+
+        //given - precondition or setup
+        load(employee(1L, "John", "Adams", "john.adams@xyz,xyz"),
+                employee(2L, "John", "Brown", "john.brown@xyz,xyz"),
+                employee(3L, "John", "Clark", "john.clark@xyz,xyz"));
+
+        //when - action or behaviour that we are going to test
+        EmployeeSearchResult result = employeeSearchIndex.search("john", 1, 2);
+
+        //then - verify the output
+        assertThat(result.getTotal()).isEqualTo(3);
+        assertThat(result.getHits()).extracting(EmployeeSearchHit::getLastName).containsExactly("Clark");
+    }
+
+    //JUnit test for search method paging, a page far past the end
+    @DisplayName("JUnit test for search method paging, a page far past the end")
+    @Test
+    public void givenPageFarPastTheEnd_whenSearch_thenReturnNoHits() {
+
+        //given - precondition or setup
+        load(employee(1L, "John", "Adams", "john.adams@xyz,xyz"));
+
+        //when - action or behaviour that we are going to test
+        EmployeeSearchResult result = employeeSearchIndex.search("john", Integer.MAX_VALUE, 100);
+
+        //then - verify the output
+        assertThat(result.getTotal()).isEqualTo(1);
+        assertThat(result.getHits()).isEmpty();
+    }
+
+    //JUnit test for onEmployeeChanged method keeping the index current
+    @DisplayName("JUnit test for onEmployeeChanged method")
+    @Test
+    public void givenChanges_whenOnEmployeeChanged_thenSearchSeesThem() {
+
+        //given - precondition or setup
+        load(employee(1L, "John", "Doe", "john.doe@xyz,xyz"),
+                employee(2L, "Jane", "Doe", "jane.doe@xyz,xyz"));
+
+        //when - action or behaviour that we are going to test
+        employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.patched(1L,
+                EmployeePatch.builder().firstName("Jonathan").version(0L).build()));
+        employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.deleted(2L));
+        employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.saved(
+                employee(3L, "Janet", "Roe", "janet.roe@xyz,xyz")));
+
+        //then - verify the output
+        assertThat(employeeSearchIndex.search("jonathan", 0, 10).getHits())
+                .extracting(EmployeeSearchHit::getId, EmployeeSearchHit::getEmail)
+                .containsExactly(tuple(1L, "john.doe@xyz,xyz"));
+        assertThat(employeeSearchIndex.search("jane", 0, 10).getHits())
+                .extracting(EmployeeSearchHit::getId).containsExactly(3L);
+    }
+
+    //JUnit test for onEmployeeChanged method before the initial load
+    @DisplayName("JUnit test for onEmployeeChanged method before the initial load")
+    @Test
+    public void givenChangeBeforeLoad_whenLoad_thenReplayChange() {
+
+        //given - precondition or setup
+        employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.deleted(1L));
+
+        //when - action or behaviour that we are going to test
+        load(employee(1L, "John", "Doe", "john.doe@xyz,xyz"));
+
+        //then - verify the output
+        assertThat(employeeSearchIndex.search("john", 0, 10).getTotal()).isZero();
+    }
+
+    private void load(Employee... employees) {
+
+        willAnswer(invocation -> {
+            List.of(employees).forEach(invocation.<Consumer<Employee>>getArgument(0));
+            return null;
+        }).given(employeeService).exportEmployees(any());
+        employeeSearchIndex.load();
+    }
+
+    private static Employee employee(long id, String firstName, String lastName, String email) {
+
+        return Employee.builder().id(id).firstName(firstName).lastName(lastName).email(email).build();
+    }
+}
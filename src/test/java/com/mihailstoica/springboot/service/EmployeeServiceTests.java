@@ -2,8 +2,14 @@ package com.mihailstoica.springboot.service;
 
 import com.mihailstoica.springboot.exception.ResourceNotFoundException;
 import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.model.EmployeeBatchResult;
+import com.mihailstoica.springboot.model.EmployeeChangedEvent;
+import com.mihailstoica.springboot.model.EmployeePage;
+import com.mihailstoica.springboot.model.EmployeePatch;
+import com.mihailstoica.springboot.model.RevisionedEmployees;
 import com.mihailstoica.springboot.repository.EmployeeRepository;
 import com.mihailstoica.springboot.service.impl.EmployeeServiceImpl;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -12,15 +18,26 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,6 +46,12 @@ public class EmployeeServiceTests {
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -53,11 +76,8 @@ public class EmployeeServiceTests {
 
         //given - precondition or setup
 
-        //stub method employeeRepository.findByEmail()
-        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
-
-        //stub method employeeRepository.save()
-        given(employeeRepository.save(employee)).willReturn(employee);
+        //stub method employeeRepository.saveAndFlush()
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
 
         //when - action or behaviour that we are going to test
         Employee savedEmployee = employeeService.saveEmployee(employee);
@@ -65,6 +85,7 @@ public class EmployeeServiceTests {
         //then - verify the output
         assertThat(savedEmployee).isNotNull();
         assertThat(savedEmployee).isEqualTo(employee);
+        verify(employeeRepository, never()).findByEmail(any());
     }
 
     //JUnit test for saveEmployee method
@@ -74,14 +95,100 @@ public class EmployeeServiceTests {
 
         //given - precondition or setup
 
-        //stub method employeeRepository.findByEmail()
-        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+        //stub method employeeRepository.saveAndFlush() to hit the unique index on email
+        given(employeeRepository.saveAndFlush(employee)).willThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException(), Employee.EMAIL_UNIQUE_CONSTRAINT)));
 
         //when - action or behaviour that we are going to test
         Assertions.assertThrows(ResourceNotFoundException.class, () -> employeeService.saveEmployee(employee));
 
         //then - verify the output
-        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(employeeRepository, never()).findByEmail(any());
+    }
+
+    //JUnit test for upsertEmployee method
+    @DisplayName("JUnit test for upsertEmployee method, new employee")
+    @Test
+    public void givenNewEmployeeObject_whenUpsertEmployee_thenReturnInsertedEmployee() {
+
+        //given - precondition or setup
+
+        //stub method employeeRepository.upsert()
+        given(employeeRepository.upsert(employee)).willReturn(1);
+
+        //when - action or behaviour that we are going to test
+        Employee savedEmployee = employeeService.upsertEmployee(employee);
+
+        //then - verify the output
+        assertThat(savedEmployee).isEqualTo(employee);
+        verify(employeeRepository, never()).findByEmail(any());
+    }
+
+    //JUnit test for upsertEmployee method
+    @DisplayName("JUnit test for upsertEmployee method, existing employee")
+    @Test
+    public void givenExistingEmployeeObject_whenUpsertEmployee_thenReturnUpdatedEmployee() {
+
+        //given - precondition or setup
+        Employee existingEmployee = Employee.builder()
+                .id(7L)
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .build();
+        //stub methods employeeRepository.upsert() and employeeRepository.findByEmail()
+        given(employeeRepository.upsert(employee)).willReturn(2);
+        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.of(existingEmployee));
+
+        //when - action or behaviour that we are going to test
+        Employee savedEmployee = employeeService.upsertEmployee(employee);
+
+        //then - verify the output
+        assertThat(savedEmployee.getId()).isEqualTo(7L);
+    }
+
+    //JUnit test for saveEmployees method
+    @DisplayName("JUnit test for saveEmployees method")
+    @Test
+    public void givenEmployeesList_whenSaveEmployees_thenReturnPerRowResults() {
+
+        //given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("john.doe@xyz,com")
+                .build();
+        Employee employee2 = Employee.builder()
+                .firstName("Johnny")
+                .lastName("Doe")
+                .email("john.doe@xyz,com")
+                .build();
+        Employee employee3 = Employee.builder()
+                .firstName("Jim")
+                .lastName("Doe")
+                .build();
+        //stub method employeeRepository.findExistingEmails()
+        given(employeeRepository.findExistingEmails(any())).willReturn(List.of(employee.getEmail()));
+        //stub method employeeRepository.save()
+        given(employeeRepository.save(employee1)).willAnswer(invocation -> {
+            Employee savedEmployee = invocation.getArgument(0);
+            savedEmployee.setId(2L);
+            return savedEmployee;
+        });
+
+        //when - action or behaviour that we are going to test
+        List<EmployeeBatchResult> results = employeeService.saveEmployees(
+                List.of(employee, employee1, employee2, employee3));
+
+        //then - verify the output
+        assertThat(results).extracting(EmployeeBatchResult::getStatus).containsExactly(
+                EmployeeBatchResult.Status.DUPLICATE,
+                EmployeeBatchResult.Status.CREATED,
+                EmployeeBatchResult.Status.DUPLICATE,
+                EmployeeBatchResult.Status.INVALID);
+        assertThat(results.get(1).getId()).isEqualTo(2L);
+        verify(employeeRepository, times(1)).save(any(Employee.class));
+        verify(employeeRepository, times(1)).flush();
     }
 
     //JUnit test for getAllEmployees method
@@ -130,6 +237,91 @@ public class EmployeeServiceTests {
         assertThat(savedAllEmployee).isEmpty();
     }
 
+    //JUnit test for getEmployeePage method
+    @DisplayName("JUnit test for getEmployeePage method")
+    @Test
+    public void givenMoreRowsThanLimit_whenGetEmployeePage_thenReturnPageWithNextCursor() {
+
+        //given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .id(2L)
+                .firstName("John")
+                .lastName("Doe")
+                .email("john.doe@xyz,com")
+                .build();
+        //stub method employeeRepository.findByIdGreaterThanOrderByIdAsc()
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2)))
+                .willReturn(List.of(employee, employee1));
+
+        //when - action or behaviour that we are going to test
+        EmployeePage employeePage = employeeService.getEmployeePage(0L, 1);
+
+        //then - verify the output
+        assertThat(employeePage.getEmployees()).containsExactly(employee);
+        assertThat(EmployeePage.decodeCursor(employeePage.getNext())).isEqualTo(employee.getId());
+    }
+
+    //JUnit test for getEmployeePage method, last page
+    @DisplayName("JUnit test for getEmployeePage method, last page")
+    @Test
+    public void givenFewerRowsThanLimit_whenGetEmployeePage_thenReturnPageWithoutNextCursor() {
+
+        //given - precondition or setup
+        //stub method employeeRepository.findByIdGreaterThanOrderByIdAsc()
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 11)))
+                .willReturn(List.of(employee));
+
+        //when - action or behaviour that we are going to test
+        EmployeePage employeePage = employeeService.getEmployeePage(0L, 10);
+
+        //then - verify the output
+        assertThat(employeePage.getEmployees()).containsExactly(employee);
+        assertThat(employeePage.getNext()).isNull();
+    }
+
+    //JUnit test for getEmployeePage method with a revision the caller already has
+    @DisplayName("JUnit test for getEmployeePage method, revision unchanged")
+    @Test
+    public void givenUnchangedRevision_whenGetEmployeePage_thenReturnRevisionWithoutEmployees() {
+
+        //given - precondition or setup
+        //stub method employeeRepository.findEmployeesRevision()
+        given(employeeRepository.findEmployeesRevision()).willReturn(7L);
+
+        //when - action or behaviour that we are going to test
+        RevisionedEmployees<EmployeePage> page = employeeService.getEmployeePage(0L, 10, revision -> revision == 7L);
+
+        //then - verify the output
+        assertThat(page.getRevision()).isEqualTo(7L);
+        assertThat(page.getEmployees()).isNull();
+        verify(employeeRepository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any());
+    }
+
+    //JUnit test for exportEmployees method
+    @DisplayName("JUnit test for exportEmployees method")
+    @Test
+    public void givenEmployeeStream_whenExportEmployees_thenDetachAndConsumeEachEmployee() {
+
+        //given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .id(2L)
+                .firstName("John")
+                .lastName("Doe")
+                .email("john.doe@xyz,com")
+                .build();
+        //stub method employeeRepository.streamAllByOrderByIdAsc()
+        given(employeeRepository.streamAllByOrderByIdAsc()).willReturn(Stream.of(employee, employee1));
+        List<Employee> exportedEmployees = new ArrayList<>();
+
+        //when - action or behaviour that we are going to test
+        employeeService.exportEmployees(exportedEmployees::add);
+
+        //then - verify the output
+        assertThat(exportedEmployees).containsExactly(employee, employee1);
+        verify(entityManager, times(1)).detach(employee);
+        verify(entityManager, times(1)).detach(employee1);
+    }
+
     //JUnit test for getEmployeeById
     @DisplayName("JUnit test for getEmployeeById")
     @Test
@@ -166,20 +358,144 @@ public class EmployeeServiceTests {
         assertThat(updatedEmployee).isEqualTo(employee);
     }
 
+    //JUnit test for patchEmployee method
+    @DisplayName("JUnit test for patchEmployee method")
+    @Test
+    public void givenEmployeePatch_whenPatchEmployee_thenIssueSingleUpdate() {
+
+        //given - precondition or setup
+        EmployeePatch patch = EmployeePatch.builder()
+                .firstName("John")
+                .version(0L)
+                .build();
+        //stub method employeeRepository.patch()
+        given(employeeRepository.patch(1L, 0L, patch)).willReturn(1);
+
+        //when - action or behaviour that we are going to test
+        boolean patched = employeeService.patchEmployee(1L, patch);
+
+        //then - verify the output
+        assertThat(patched).isTrue();
+        verify(employeeRepository, never()).findById(any());
+        verify(employeeRepository, never()).existsById(any());
+    }
+
+    //JUnit test for patchEmployee method, stale version
+    @DisplayName("JUnit test for patchEmployee method which throws exception on a stale version")
+    @Test
+    public void givenStaleVersion_whenPatchEmployee_thenThrowsOptimisticLockingFailureException() {
+
+        //given - precondition or setup
+        EmployeePatch patch = EmployeePatch.builder()
+                .firstName("John")
+                .version(0L)
+                .build();
+        //stub methods employeeRepository.patch() and employeeRepository.existsById()
+        given(employeeRepository.patch(1L, 0L, patch)).willReturn(0);
+        given(employeeRepository.existsById(1L)).willReturn(true);
+
+        //when - action or behaviour that we are going to test
+        Assertions.assertThrows(OptimisticLockingFailureException.class,
+                () -> employeeService.patchEmployee(1L, patch));
+
+        //then - verify the output
+        verify(employeeRepository, times(1)).existsById(1L);
+    }
+
     //JUnit test for deleteEmployee method
     @DisplayName("JUnit test for deleteEmployee method")
     @Test
-    public void givenEmployeeId_whenDeleteEmployee_thenNothing() {
+    public void givenEmployeeId_whenDeleteEmployee_thenReturnTrue() {
+
+        //given - precondition or setup
+        long employeeId = 1L;
+        given(employeeRepository.deleteEmployeeById(employeeId)).willReturn(1);
+
+        //when - action or behaviour that we are going to test
+        boolean deleted = employeeService.deleteEmployee(employeeId);
+
+        //then - verify the output
+        assertThat(deleted).isTrue();
+        verify(employeeRepository, never()).findById(any());
+        verify(employeeRepository, never()).deleteById(any());
+        verify(eventPublisher).publishEvent(EmployeeChangedEvent.deleted(employeeId));
+        verify(employeeRepository).incrementEmployeesRevision(anyInt());
+        verify(employeeRepository).insertChanges(List.of(EmployeeChangedEvent.deleted(employeeId)));
+    }
+
+    //JUnit test for deleteEmployee method with a version
+    @DisplayName("JUnit test for deleteEmployee method with a stale version")
+    @Test
+    public void givenStaleVersion_whenDeleteEmployee_thenReturnFalse() {
 
         //given - precondition or setup
         long employeeId = 1L;
-        willDoNothing().given(employeeRepository).deleteById(employeeId);
+        given(employeeRepository.deleteEmployeeByIdAndVersion(employeeId, 2L)).willReturn(0);
+
+        //when - action or behaviour that we are going to test
+        boolean deleted = employeeService.deleteEmployee(employeeId, 2L);
+
+        //then - verify the output
+        assertThat(deleted).isFalse();
+        verify(eventPublisher, never()).publishEvent(any(EmployeeChangedEvent.class));
+        verify(employeeRepository, never()).incrementEmployeesRevision(anyInt());
+        verify(employeeRepository, never()).insertChanges(any());
+    }
+
+    //JUnit test for deleteEmployees method
+    @DisplayName("JUnit test for deleteEmployees method")
+    @Test
+    public void givenMoreIdsThanChunkSize_whenDeleteEmployees_thenDeleteInChunks() {
+
+        //given - precondition or setup
+        List<Long> employeeIds = LongStream.rangeClosed(1, EmployeeServiceImpl.DELETE_CHUNK_SIZE + 1)
+                .boxed()
+                .collect(Collectors.toList());
+        given(employeeRepository.findExistingIdsForUpdate(any()))
+                .willReturn(employeeIds.subList(0, EmployeeServiceImpl.DELETE_CHUNK_SIZE),
+                        List.of(EmployeeServiceImpl.DELETE_CHUNK_SIZE + 1L));
+        given(employeeRepository.deleteEmployeesByIdIn(any())).willReturn(EmployeeServiceImpl.DELETE_CHUNK_SIZE, 1);
+
+        //when - action or behaviour that we are going to test
+        int deletedRows = employeeService.deleteEmployees(employeeIds);
+
+        //then - verify the output
+        assertThat(deletedRows).isEqualTo(EmployeeServiceImpl.DELETE_CHUNK_SIZE + 1);
+        verify(employeeRepository, times(2)).deleteEmployeesByIdIn(any());
+    }
+
+    //JUnit test for deleteEmployees method, only the ids that existed are recorded as deleted
+    @DisplayName("JUnit test for deleteEmployees method, only the ids that existed are recorded as deleted")
+    @Test
+    public void givenSomeUnknownIds_whenDeleteEmployees_thenRecordOnlyDeletedIds() {
+
+        //given - precondition or setup
+        given(employeeRepository.findExistingIdsForUpdate(List.of(1L, 2L, 3L))).willReturn(List.of(2L));
+        given(employeeRepository.deleteEmployeesByIdIn(List.of(2L))).willReturn(1);
+
+        //when - action or behaviour that we are going to test
+        int deletedRows = employeeService.deleteEmployees(List.of(1L, 2L, 3L));
+
+        //then - verify the output
+        assertThat(deletedRows).isEqualTo(1);
+        verify(employeeRepository).insertChanges(List.of(EmployeeChangedEvent.deleted(2L)));
+    }
+
+    //JUnit test for deleteEmployees method, unknown ids only
+    @DisplayName("JUnit test for deleteEmployees method, unknown ids only")
+    @Test
+    public void givenUnknownIds_whenDeleteEmployees_thenRecordNothing() {
+
+        //given - precondition or setup
+        given(employeeRepository.findExistingIdsForUpdate(List.of(1L, 2L))).willReturn(List.of());
 
         //when - action or behaviour that we are going to test
-        employeeService.deleteEmployee(employeeId);
+        int deletedRows = employeeService.deleteEmployees(List.of(1L, 2L));
 
         //then - verify the output
-        verify(employeeRepository, times(1)).deleteById(employeeId);
+        assertThat(deletedRows).isZero();
+        verify(employeeRepository, never()).deleteEmployeesByIdIn(any());
+        verify(employeeRepository, never()).incrementEmployeesRevision(anyInt());
     }
 
 }
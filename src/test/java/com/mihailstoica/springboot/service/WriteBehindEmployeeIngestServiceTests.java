@@ -0,0 +1,262 @@
+package com.mihailstoica.springboot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mihailstoica.springboot.config.WriteBehindProperties;
+import com.mihailstoica.springboot.exception.WriteBehindFullException;
+import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.model.EmployeeBatchResult;
+import com.mihailstoica.springboot.model.EmployeeIngestStatus;
+import com.mihailstoica.springboot.service.impl.EmployeeWriteLog;
+import com.mihailstoica.springboot.service.impl.WriteBehindEmployeeIngestService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willReturn;
+
+@ExtendWith(MockitoExtension.class)
+public class WriteBehindEmployeeIngestServiceTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    @TempDir
+    Path directory;
+
+    private WriteBehindProperties properties;
+
+    private MeterRegistry meterRegistry;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        this.properties = new WriteBehindProperties();
+        properties.setDirectory(directory);
+        properties.setSegmentSize(DataSize.ofKilobytes(4));
+        properties.setGroupCommitDelay(Duration.ZERO);
+        this.employee = Employee.builder()
+                .firstName("Jane")
+                .lastName("Doe")
+                .email("jane.doe@xyz,com")
+                .build();
+    }
+
+    //JUnit test for enqueue and drain, the outcome is reported on the status
+    @DisplayName("JUnit test for enqueue and drain, the outcome is reported on the status")
+    @Test
+    public void givenQueuedEmployee_whenDrain_thenStatusIsCreated() throws IOException {
+
+        //given - precondition or setup
+        given(employeeService.saveEmployees(anyList())).willReturn(List.of(
+                new EmployeeBatchResult(0, EmployeeBatchResult.Status.CREATED, 7L, employee.getEmail())));
+        WriteBehindEmployeeIngestService ingestService = ingestService();
+        EmployeeIngestStatus queued = ingestService.enqueue(employee);
+        assertThat(meterRegistry.get("employees.write.behind.depth").gauge().value()).isEqualTo(1);
+
+        //when - action or behaviour that we are going to test
+        ingestService.drain();
+
+        //then - verify the output
+        assertThat(queued.getState()).isEqualTo(EmployeeIngestStatus.State.QUEUED);
+        EmployeeIngestStatus status = ingestService.getStatus(queued.getSequence()).orElseThrow();
+        assertThat(status.getState()).isEqualTo(EmployeeIngestStatus.State.CREATED);
+        assertThat(status.getId()).isEqualTo(7L);
+        assertThat(meterRegistry.get("employees.write.behind.depth").gauge().value()).isZero();
+        assertThat(meterRegistry.get("employees.write.behind.lag").timeGauge().value()).isZero();
+        assertThat(ingestService.getStatus(queued.getSequence() + 1)).isEmpty();
+    }
+
+    //JUnit test for drain, a failed batch is replayed after a restart
+    @DisplayName("JUnit test for drain, a failed batch is replayed after a restart")
+    @Test
+    public void givenFailedBatch_whenRestarted_thenReplayQueuedEmployees() throws IOException {
+
+        //given - precondition or setup
+        given(employeeService.saveEmployees(anyList())).willThrow(new QueryTimeoutException("timeout"));
+        WriteBehindEmployeeIngestService ingestService = ingestService();
+        long sequence = ingestService.enqueue(employee).getSequence();
+        ingestService.drain();
+        assertThat(ingestService.getStatus(sequence).orElseThrow().getState())
+                .isEqualTo(EmployeeIngestStatus.State.QUEUED);
+
+        //when - action or behaviour that we are going to test
+        willReturn(List.of(new EmployeeBatchResult(0, EmployeeBatchResult.Status.CREATED, 7L, employee.getEmail())))
+                .given(employeeService).saveEmployees(List.of(employee));
+        WriteBehindEmployeeIngestService restartedService = ingestService();
+        restartedService.drain();
+
+        //then - verify the output
+        assertThat(restartedService.getStatus(sequence).orElseThrow().getState())
+                .isEqualTo(EmployeeIngestStatus.State.CREATED);
+    }
+
+    //JUnit test for getStatus, the outcome of a create processed before a restart is not known any more
+    @DisplayName("JUnit test for getStatus, a create processed before a restart is reported unknown")
+    @Test
+    public void givenDrainedEmployee_whenRestarted_thenStatusIsUnknown() throws IOException {
+
+        //given - precondition or setup
+        willReturn(List.of(new EmployeeBatchResult(0, EmployeeBatchResult.Status.DUPLICATE, null,
+                employee.getEmail()))).given(employeeService).saveEmployees(List.of(employee));
+        WriteBehindEmployeeIngestService ingestService = ingestService();
+        long sequence = ingestService.enqueue(employee).getSequence();
+        ingestService.drain();
+
+        //when - action or behaviour that we are going to test
+        WriteBehindEmployeeIngestService restartedService = ingestService();
+
+        //then - verify the output
+        assertThat(restartedService.getStatus(sequence).orElseThrow().getState())
+                .isEqualTo(EmployeeIngestStatus.State.UNKNOWN);
+    }
+
+    //JUnit test for drain, a record the database rejects is skipped and the rest of its batch still lands
+    @DisplayName("JUnit test for drain, a rejected record is skipped and the rest of its batch still lands")
+    @Test
+    public void givenRejectedRecordInBatch_whenDrain_thenInsertTheOthers() throws IOException {
+
+        //given - precondition or setup
+        Employee tooLong = Employee.builder()
+                .firstName("J".repeat(300))
+                .lastName("Doe")
+                .email("j.doe@xyz,com")
+                .build();
+        Employee other = Employee.builder()
+                .firstName("John")
+                .lastName("Roe")
+                .email("john.roe@xyz,com")
+                .build();
+        DataIntegrityViolationException rejected = new DataIntegrityViolationException("value too long");
+        given(employeeService.saveEmployees(List.of(employee, tooLong, other))).willThrow(rejected);
+        given(employeeService.saveEmployees(List.of(tooLong))).willThrow(rejected);
+        given(employeeService.saveEmployees(List.of(employee))).willReturn(List.of(
+                new EmployeeBatchResult(0, EmployeeBatchResult.Status.CREATED, 7L, employee.getEmail())));
+        given(employeeService.saveEmployees(List.of(other))).willReturn(List.of(
+                new EmployeeBatchResult(0, EmployeeBatchResult.Status.CREATED, 8L, other.getEmail())));
+        WriteBehindEmployeeIngestService ingestService = ingestService();
+        long first = ingestService.enqueue(employee).getSequence();
+        ingestService.enqueue(tooLong);
+        ingestService.enqueue(other);
+
+        //when - action or behaviour that we are going to test
+        ingestService.drain();
+
+        //then - verify the output
+        assertThat(ingestService.getStatus(first).orElseThrow().getId()).isEqualTo(7L);
+        assertThat(ingestService.getStatus(first + 1).orElseThrow().getState())
+                .isEqualTo(EmployeeIngestStatus.State.FAILED);
+        assertThat(ingestService.getStatus(first + 2).orElseThrow().getId()).isEqualTo(8L);
+        assertThat(meterRegistry.get("employees.write.behind.depth").gauge().value()).isZero();
+    }
+
+    //JUnit test for EmployeeWriteLog, records are read back across segments and consumed ones are deleted
+    @DisplayName("JUnit test for EmployeeWriteLog, read and checkpoint across segments")
+    @Test
+    public void givenRecordsInSeveralSegments_whenReadAndCheckpoint_thenDeleteConsumedSegments() throws IOException {
+
+        //given - precondition or setup
+        EmployeeWriteLog writeLog = new EmployeeWriteLog(directory, 256, 4, Duration.ZERO);
+        for (int i = 0; i < 10; i++) {
+            writeLog.awaitDurable(writeLog.append(("record" + i).getBytes(StandardCharsets.UTF_8)));
+        }
+
+        //when - action or behaviour that we are going to test
+        List<EmployeeWriteLog.Entry> entries = writeLog.read(writeLog.getCheckpoint(), 100);
+        EmployeeWriteLog.Entry last = entries.get(entries.size() - 1);
+        writeLog.checkpoint(last.getNext(), last.getSequence());
+
+        //then - verify the output
+        assertThat(entries).extracting(EmployeeWriteLog.Entry::getSequence)
+                .containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+        assertThat(new String(entries.get(9).getPayload(), StandardCharsets.UTF_8)).isEqualTo("record9");
+        assertThat(writeLog.getPendingCount()).isZero();
+        assertThat(segments()).hasSize(1);
+        writeLog.close();
+    }
+
+    //JUnit test for EmployeeWriteLog, a torn record at the end is dropped on recovery
+    @DisplayName("JUnit test for EmployeeWriteLog, a torn record is dropped on recovery")
+    @Test
+    public void givenTornRecord_whenReopened_thenLogEndsBeforeIt() throws IOException {
+
+        //given - precondition or setup
+        EmployeeWriteLog writeLog = new EmployeeWriteLog(directory, 4096, 4, Duration.ZERO);
+        writeLog.awaitDurable(writeLog.append("first".getBytes(StandardCharsets.UTF_8)));
+        writeLog.awaitDurable(writeLog.append("second".getBytes(StandardCharsets.UTF_8)));
+        writeLog.close();
+        //a crash half way through the payload of the second record
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), 24 + 5 + 24 + 2);
+        }
+
+        //when - action or behaviour that we are going to test
+        EmployeeWriteLog reopenedLog = new EmployeeWriteLog(directory, 4096, 4, Duration.ZERO);
+        long sequence = reopenedLog.append("third".getBytes(StandardCharsets.UTF_8));
+        reopenedLog.awaitDurable(sequence);
+
+        //then - verify the output
+        assertThat(sequence).isEqualTo(2L);
+        assertThat(reopenedLog.read(reopenedLog.getCheckpoint(), 100))
+                .extracting(entry -> new String(entry.getPayload(), StandardCharsets.UTF_8))
+                .containsExactly("first", "third");
+        reopenedLog.close();
+    }
+
+    //JUnit test for EmployeeWriteLog, appends are refused once every segment is taken
+    @DisplayName("JUnit test for EmployeeWriteLog, appends are refused once the log is full")
+    @Test
+    public void givenFullLog_whenAppend_thenThrowsWriteBehindFullException() throws IOException {
+
+        //given - precondition or setup
+        EmployeeWriteLog writeLog = new EmployeeWriteLog(directory, 64, 2, Duration.ZERO);
+        byte[] payload = new byte[32];
+        writeLog.append(payload);
+        writeLog.append(payload);
+
+        //when - action or behaviour that we are going to test
+        //then - verify the output
+        assertThatThrownBy(() -> writeLog.append(payload)).isInstanceOf(WriteBehindFullException.class);
+        writeLog.close();
+    }
+
+    private WriteBehindEmployeeIngestService ingestService() throws IOException {
+
+        //a fresh registry, a restarted service registers its meters again
+        this.meterRegistry = new SimpleMeterRegistry();
+        return new WriteBehindEmployeeIngestService(employeeService, properties, new ObjectMapper(), meterRegistry);
+    }
+
+    private List<Path> segments() throws IOException {
+
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log")).sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.mihailstoica.springboot.benchmark;
+
+import com.mihailstoica.springboot.SpringBootTestingApplication;
+import com.mihailstoica.springboot.model.Employee;
+import com.mihailstoica.springboot.repository.EmployeeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares Tomcat's thread-per-request pool with virtual-thread request handling at high concurrency.
+ * Needs the same MySQL database as the integration tests, run with
+ * {@code mvn -Pjava21 test -Dtest.excludedGroups= -Dgroups=benchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+public class VirtualThreadsBenchmarkTests {
+
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 2000);
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 50_000);
+
+    private static final int EMPLOYEES = 200;
+
+    @DisplayName("Benchmark of thread-per-request against virtual threads")
+    @Test
+    public void givenHighConcurrency_whenServingWithVirtualThreads_thenCompareWithThreadPerRequest() throws Exception {
+
+        //given - precondition or setup
+
+        //when - action or behaviour that we are going to test
+        Result threadPerRequest = run(false);
+        Result virtualThreads = run(true);
+
+        //then - verify the output
+        log.info(String.format("%-20s %12s %10s %10s %10s", "mode", "requests/s", "p50 ms", "p99 ms", "errors"));
+        threadPerRequest.log("thread-per-request");
+        virtualThreads.log("virtual-threads");
+        assertThat(virtualThreads.errors).isZero();
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .properties("server.port=0",
+                        "spring.jpa.show-sql=false",
+                        "app.virtual-threads.enabled=" + virtualThreads,
+                        //measures the server itself, one client at the configured rate would be throttled
+                        "app.admission.enabled=false")
+                .run()) {
+            EmployeeRepository employeeRepository = context.getBean(EmployeeRepository.class);
+            employeeRepository.deleteAll();
+            employeeRepository.saveAll(IntStream.range(0, EMPLOYEES)
+                    .mapToObj(i -> Employee.builder()
+                            .firstName("John" + i)
+                            .lastName("Doe")
+                            .email("john.doe" + i + "@xyz,xyz")
+                            .build())
+                    .toList());
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            //keyset pages are not cached, so every request borrows a pooled connection
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/employees?limit=20"))
+                    .GET()
+                    .build();
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+
+            long[] latencies = new long[REQUESTS];
+            AtomicInteger errors = new AtomicInteger();
+            Semaphore inFlight = new Semaphore(CONCURRENCY);
+            long start = System.nanoTime();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < REQUESTS; i++) {
+                    int index = i;
+                    inFlight.acquire();
+                    clients.submit(() -> {
+                        long requestStart = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        } finally {
+                            latencies[index] = System.nanoTime() - requestStart;
+                            inFlight.release();
+                        }
+                    });
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            return new Result(REQUESTS / (elapsed / 1e9),
+                    TimeUnit.NANOSECONDS.toMillis(latencies[REQUESTS / 2]),
+                    TimeUnit.NANOSECONDS.toMillis(latencies[(int) (REQUESTS * 0.99)]),
+                    errors.get());
+        }
+    }
+
+    private record Result(double throughput, long p50, long p99, int errors) {
+
+        void log(String mode) {
+            log.info(String.format("%-20s %12.0f %10d %10d %10d", mode, throughput, p50, p99, errors));
+        }
+    }
+}